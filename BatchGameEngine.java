@@ -0,0 +1,253 @@
+import java.util.Collections;
+import java.util.SplittableRandom;
+
+/**
+ * Plays thousands of games between greedy bots at once, in lockstep, with every game held in
+ * primitive arrays rather than in seats, strategies and card objects.
+ *
+ * A batch of games is stored by field: one array of hand masks per seat, one array of draw piles with
+ * a count of the cards left in each, and arrays of the top card, the playable cards and the discard
+ * pile. Every game starts with the first seat, and every turn passes the turn on, so all the games of
+ * a batch have the same current seat. A step plays one turn of every unfinished game with the greedy
+ * policy of Player, which is a table lookup, a few mask operations and a trailing zero count. Finished
+ * games are dropped from the list of games that the next step visits.
+ *
+ * Each game is dealt from its own seed exactly the way GameEngine deals it, and the seeds are drawn
+ * from the engine's seed the same way, so simulateGames() gives exactly the results that
+ * GameEngine.simulateGames() gives with the same seed and number of greedy players.
+ */
+public class BatchGameEngine {
+
+    /**
+     * Constants for the batch engine.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    private static final int MINIMUM_PLAYERS = 3;
+    private static final int MAXIMUM_PLAYERS = 6;
+    private static final int STARTING_HAND_CARDS_NUMBER = 5;
+
+    /**
+     * Class variables. The hand of seat s in game g is at hands[s * batchSize + g], and the draw pile
+     * of game g starts at drawPiles[g * 52], with the top card last.
+     */
+    private final int batchSize;
+    private final long[] hands;
+    private final byte[] drawPiles;
+    private final int[] drawPileSizes;
+    private final int[] topCards;
+    private final long[] playableMasks;
+    private final long[] discardPiles;
+    private final long[] shuffleSeeds;
+    private final int[] unfinishedGames;
+    private final SplittableRandom gameSeeds;
+    private final SeedableRandom random;
+    private boolean isReshufflingDiscardPile = false;
+
+    /**
+     * Creates a batch engine that plays DEFAULT_BATCH_SIZE games at once.
+     *
+     * @param seed The seed for this engine's games, which deals the same games as a GameEngine with
+     *             the same seed
+     */
+    public BatchGameEngine(long seed) {
+        this(seed, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a batch engine.
+     *
+     * @param seed The seed for this engine's games, which deals the same games as a GameEngine with
+     *             the same seed
+     * @param batchSize The most games played at once
+     */
+    public BatchGameEngine(long seed, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("A batch needs room for at least one game, got " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.hands = new long[MAXIMUM_PLAYERS * batchSize];
+        this.drawPiles = new byte[Card.DECK_SIZE * batchSize];
+        this.drawPileSizes = new int[batchSize];
+        this.topCards = new int[batchSize];
+        this.playableMasks = new long[batchSize];
+        this.discardPiles = new long[batchSize];
+        this.shuffleSeeds = new long[batchSize];
+        this.unfinishedGames = new int[batchSize];
+        this.gameSeeds = new SplittableRandom(seed);
+        this.random = new SeedableRandom(seed);
+    }
+
+    /**
+     * Getters and Setters.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public boolean isReshufflingDiscardPile() {
+        return isReshufflingDiscardPile;
+    }
+
+    /**
+     * Sets whether the discard pile is shuffled back into the draw pile when the draw pile runs out,
+     * rather than the game ending in a tie.
+     *
+     * @param isReshufflingDiscardPile True to reshuffle the discard pile.
+     */
+    public void setReshufflingDiscardPile(boolean isReshufflingDiscardPile) {
+        this.isReshufflingDiscardPile = isReshufflingDiscardPile;
+    }
+
+    /**
+     * Plays a number of games between greedy bots, a batch at a time.
+     *
+     * @param numberOfGames The number of games to be played.
+     * @param numberOfPlayers The number of bots seated at the table.
+     * @return The win and tie statistics over all of the games played.
+     */
+    public SimulationResults simulateGames(long numberOfGames, int numberOfPlayers) {
+        if (numberOfPlayers < MINIMUM_PLAYERS || numberOfPlayers > MAXIMUM_PLAYERS) {
+            throw new IllegalArgumentException("A game needs between " + MINIMUM_PLAYERS + " and "
+                                                + MAXIMUM_PLAYERS + " players, got " + numberOfPlayers);
+        }
+        SimulationResults results = new SimulationResults(Collections.nCopies(numberOfPlayers, StrategyRegistry.GREEDY));
+        long gamesLeft = numberOfGames;
+        while (gamesLeft > 0) {
+            int games = (int) Math.min(gamesLeft, batchSize);
+            for (int game = 0; game < games; game++) {
+                startNewGame(game, numberOfPlayers, gameSeeds.nextLong());
+                unfinishedGames[game] = game;
+            }
+            playBatch(games, numberOfPlayers, results);
+            gamesLeft -= games;
+        }
+        return results;
+    }
+
+    /**
+     * Plays every game of a batch to the end, one turn of every unfinished game per step.
+     *
+     * @param games The number of games in the batch.
+     * @param numberOfPlayers The number of players at every table.
+     * @param results The results that every finished game is recorded into.
+     */
+    private void playBatch(int games, int numberOfPlayers, SimulationResults results) {
+        int unfinished = games;
+        int seat = 0;
+        while (unfinished > 0) {
+            int handOffset = seat * batchSize;
+            int stillUnfinished = 0;
+            for (int i = 0; i < unfinished; i++) {
+                int game = unfinishedGames[i];
+                long hand = hands[handOffset + game];
+                long playableCards = hand & playableMasks[game];
+
+                if (playableCards == 0) {
+
+                    //Draw, or end in a tie when the draw pile is out of cards.
+                    int drawPileSize = drawPileSizes[game];
+                    if (drawPileSize == 0 && isReshufflingDiscardPile) {
+                        drawPileSize = reshuffleDiscardPile(game);
+                    }
+                    if (drawPileSize == 0) {
+                        results.recordTie();
+                        continue;
+                    }
+                    drawPileSize--;
+                    hands[handOffset + game] = hand | 1L << drawPiles[game * Card.DECK_SIZE + drawPileSize];
+                    drawPileSizes[game] = drawPileSize;
+                } else {
+
+                    //Play the lowest playable card that is not an eight, or else the lowest eight.
+                    long commonCards = playableCards & ~Hand.EIGHTS;
+                    int card = Long.numberOfTrailingZeros(commonCards != 0 ? commonCards : playableCards);
+                    hand &= ~(1L << card);
+                    hands[handOffset + game] = hand;
+                    if (hand == 0) {
+                        results.recordWin(seat + 1);
+                        continue;
+                    }
+                    int suit = Card.rankOf(card) == Card.EIGHT ? Hand.mostCommonSuit(hand) : Card.suitOf(card);
+                    topCards[game] = card;
+                    playableMasks[game] = Hand.playableMask(card, suit);
+                    discardPiles[game] |= 1L << card;
+                }
+                unfinishedGames[stillUnfinished++] = game;
+            }
+            unfinished = stillUnfinished;
+            seat = seat + 1 == numberOfPlayers ? 0 : seat + 1;
+        }
+    }
+
+    /**
+     * Deals a game the way GameEngine does: shuffles a fresh deck, deals every seat its cards in turn,
+     * reshuffles while the top card of the draw pile is an eight, and turns that card over.
+     *
+     * @param game The index of the game in the batch.
+     * @param numberOfPlayers The number of players at the table.
+     * @param gameSeed The seed that determines the shuffles of this game.
+     */
+    private void startNewGame(int game, int numberOfPlayers, long gameSeed) {
+        random.setSeed(gameSeed);
+        int pileOffset = game * Card.DECK_SIZE;
+        for (int card = 0; card < Card.DECK_SIZE; card++) {
+            drawPiles[pileOffset + card] = (byte) card;
+        }
+        int drawPileSize = Card.DECK_SIZE;
+        shuffle(pileOffset, drawPileSize);
+
+        for (int seat = 0; seat < numberOfPlayers; seat++) {
+            long hand = 0;
+            for (int i = 0; i < STARTING_HAND_CARDS_NUMBER; i++) {
+                hand |= 1L << drawPiles[pileOffset + --drawPileSize];
+            }
+            hands[seat * batchSize + game] = hand;
+        }
+        while (Card.rankOf(drawPiles[pileOffset + drawPileSize - 1]) == Card.EIGHT) {
+            shuffle(pileOffset, drawPileSize);
+        }
+
+        int firstCard = drawPiles[pileOffset + --drawPileSize];
+        drawPileSizes[game] = drawPileSize;
+        topCards[game] = firstCard;
+        playableMasks[game] = Hand.playableMask(firstCard, Card.suitOf(firstCard));
+        discardPiles[game] = 1L << firstCard;
+        if (isReshufflingDiscardPile) {
+            shuffleSeeds[game] = random.nextLong();
+        }
+    }
+
+    /**
+     * Shuffles the bottom of a draw pile in place, exactly like CardStack.shuffle().
+     *
+     * @param pileOffset Where the draw pile starts in drawPiles.
+     * @param size The number of cards to shuffle.
+     */
+    private void shuffle(int pileOffset, int size) {
+        for (int i = size; i > 1; i--) {
+            int j = random.nextInt(i);
+            byte swap = drawPiles[pileOffset + i - 1];
+            drawPiles[pileOffset + i - 1] = drawPiles[pileOffset + j];
+            drawPiles[pileOffset + j] = swap;
+        }
+    }
+
+    /**
+     * Moves every card of a game's discard pile but the top card into its empty draw pile, shuffled
+     * with GameState.shuffleCards() like GameState.reshuffleDiscardPile() does.
+     *
+     * @param game The index of the game in the batch.
+     * @return The number of cards in the draw pile afterwards, which is 0 if there was nothing to reshuffle.
+     */
+    private int reshuffleDiscardPile(int game) {
+        int pileOffset = game * Card.DECK_SIZE;
+        int drawPileSize = 0;
+        for (long cards = discardPiles[game] & ~(1L << topCards[game]); cards != 0; cards &= cards - 1) {
+            drawPiles[pileOffset + drawPileSize++] = (byte) Long.numberOfTrailingZeros(cards);
+        }
+        discardPiles[game] = 1L << topCards[game];
+
+        shuffleSeeds[game] = GameState.shuffleCards(drawPiles, pileOffset, drawPileSize, shuffleSeeds[game]);
+        return drawPileSize;
+    }
+}
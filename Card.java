@@ -1,9 +1,9 @@
-import java.util.EnumSet;
-import java.util.List;
-import java.util.Stack;
-
 /**
  * Represents a standard playing card from a 52 card deck.
+ *
+ * There is exactly one instance of each of the 52 cards, so cards can be compared by identity. Every
+ * card also has an ordinal between 0 and 51, which is the card's position in an unshuffled deck. The
+ * static methods on this class allow code on hot paths to work with ordinals instead of Card objects.
  */
 public class Card {
 
@@ -25,12 +25,39 @@ public class Card {
         KING
     }
 
-    private Suit suit;
-    private Rank rank;
+    /**
+     * Constants for the card encoding.
+     */
+    public static final int NUMBER_OF_SUITS = 4;
+    public static final int NUMBER_OF_RANKS = 13;
+    public static final int DECK_SIZE = NUMBER_OF_SUITS * NUMBER_OF_RANKS;
+    public static final int EIGHT = Rank.EIGHT.ordinal();
+
+    private static final Suit[] SUITS = Suit.values();
+    private static final Rank[] RANKS = Rank.values();
+    private static final byte[] SUIT_OF_ORDINAL = new byte[DECK_SIZE];
+    private static final byte[] RANK_OF_ORDINAL = new byte[DECK_SIZE];
+    private static final Card[] CARDS = new Card[DECK_SIZE];
+
+    static {
+        for (Suit suit : SUITS) {
+            for (Rank rank : RANKS) {
+                int ordinal = encode(suit, rank);
+                SUIT_OF_ORDINAL[ordinal] = (byte) suit.ordinal();
+                RANK_OF_ORDINAL[ordinal] = (byte) rank.ordinal();
+                CARDS[ordinal] = new Card(suit, rank, ordinal);
+            }
+        }
+    }
 
-    public Card(Suit suit, Rank rank) {
+    private final Suit suit;
+    private final Rank rank;
+    private final int ordinal;
+
+    private Card(Suit suit, Rank rank, int ordinal) {
         this.suit = suit;
         this.rank = rank;
+        this.ordinal = ordinal;
     }
 
     public Suit getSuit() {
@@ -41,19 +68,110 @@ public class Card {
         return rank;
     }
 
+    /**
+     * Gets the position of this card in an unshuffled deck.
+     *
+     * @return A number between 0 and 51 that identifies this card
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * Gets the card with the given suit and rank.
+     *
+     * @param suit The suit of the card
+     * @param rank The rank of the card
+     * @return The one instance of that card
+     */
+    public static Card of(Suit suit, Rank rank) {
+        return CARDS[encode(suit, rank)];
+    }
+
+    /**
+     * Gets the card with the given ordinal.
+     *
+     * @param ordinal A number between 0 and 51
+     * @return The one instance of that card
+     */
+    public static Card fromOrdinal(int ordinal) {
+        return CARDS[ordinal];
+    }
+
+    /**
+     * Encodes a suit and rank as a card ordinal.
+     *
+     * @param suit The suit of the card
+     * @param rank The rank of the card
+     * @return The ordinal of the card
+     */
+    public static int encode(Suit suit, Rank rank) {
+        return suit.ordinal() * NUMBER_OF_RANKS + rank.ordinal();
+    }
+
+    /**
+     * Gets the suit of a card ordinal.
+     *
+     * @param ordinal The ordinal of the card
+     * @return The ordinal of the card's suit
+     */
+    public static int suitOf(int ordinal) {
+        return SUIT_OF_ORDINAL[ordinal];
+    }
+
+    /**
+     * Gets the rank of a card ordinal.
+     *
+     * @param ordinal The ordinal of the card
+     * @return The ordinal of the card's rank
+     */
+    public static int rankOf(int ordinal) {
+        return RANK_OF_ORDINAL[ordinal];
+    }
+
+    /**
+     * Gets the suit with the given ordinal without allocating a copy of Suit.values().
+     *
+     * @param suitOrdinal The ordinal of the suit
+     * @return The suit
+     */
+    public static Suit suitFromOrdinal(int suitOrdinal) {
+        return SUITS[suitOrdinal];
+    }
+
+    /**
+     * Gets the rank with the given ordinal without allocating a copy of Rank.values().
+     *
+     * @param rankOrdinal The ordinal of the rank
+     * @return The rank
+     */
+    public static Rank rankFromOrdinal(int rankOrdinal) {
+        return RANKS[rankOrdinal];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Card && ((Card) other).ordinal == ordinal;
+    }
+
+    @Override
+    public int hashCode() {
+        return ordinal;
+    }
+
+    @Override
+    public String toString() {
+        return rank + " of " + suit;
+    }
+
     /**
      * Returns a list of the standard 52 cards in an unshuffled card deck.
      *
      * @return A list representing a standard deck
      */
-    public static Stack<Card> getDeck() {
-        Stack<Card> cardDeck = new Stack<>();
-
-        for (Suit suit : EnumSet.allOf(Suit.class)) {
-            for (Rank rank : EnumSet.allOf(Rank.class)) {
-                cardDeck.push(new Card(suit, rank));
-            }
-        }
+    public static CardStack getDeck() {
+        CardStack cardDeck = new CardStack();
+        cardDeck.fillWithDeck();
         return cardDeck;
     }
 }
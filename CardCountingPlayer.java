@@ -0,0 +1,305 @@
+import java.util.List;
+
+/**
+ * A bot that keeps track of every card it has seen, and uses what it knows about the next player's
+ * hand to pick its card.
+ *
+ * The bot watches the public events of the game as a GameObserver. Every card that is not in its hand
+ * or on the discard pile is unseen, and could be in any opponent's hand or in the draw pile. When an
+ * opponent draws, they had nothing to play, so none of the cards they held matched the top card's rank
+ * or the suit to match, and none were eights. The bot remembers those cards as not held by that
+ * opponent. The only exceptions are cards the opponent has drawn since, so the bot also counts those
+ * draws. Every event updates the model with a few bit operations.
+ *
+ * On its turn, the bot plays like the greedy bot, saving its eights for when nothing else can be
+ * played. Out of the cards it may play, it picks the one that leaves the next player with the fewest
+ * cards they are likely to hold and be able to play on it. After an eight, it declares a suit in the
+ * same way.
+ */
+public class CardCountingPlayer implements PlayerStrategy, GameObserver {
+
+    /**
+     * Constants for the model.
+     */
+    private static final long ALL_CARDS = (1L << Card.DECK_SIZE) - 1;
+
+    /**
+     * Class variables. The arrays are indexed by player id.
+     */
+    private int playerId;
+    private int numberOfPlayers;
+    private Hand hand = new Hand();
+    private long unseenCards;
+    private long discardPile;
+    private int topCard;
+    private int currentSuit;
+    private long playableMask;
+    private Card playedEight;
+    private final long[] notHeldCards = new long[GameState.MAXIMUM_PLAYERS + 1];
+    private final int[] drawsSinceVoid = new int[GameState.MAXIMUM_PLAYERS + 1];
+    private final int[] handSizes = new int[GameState.MAXIMUM_PLAYERS + 1];
+
+    /**
+     * Getters.
+     */
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public Hand getHand() {
+        return hand;
+    }
+
+    /**
+     * Gets the cards that this bot has not seen, which are in the opponents' hands or the draw pile.
+     *
+     * @return The mask of the unseen cards
+     */
+    public long getUnseenCards() {
+        return unseenCards;
+    }
+
+    /**
+     * Gets the unseen cards that an opponent is likely to hold: every unseen card except the ones they
+     * were known not to hold when they last had to draw.
+     *
+     * @param opponentId The id of the opponent
+     * @return The mask of the cards the opponent is likely to hold
+     */
+    public long getLikelyCards(int opponentId) {
+        return unseenCards & ~notHeldCards[opponentId];
+    }
+
+    /**
+     * Estimates the chance that an opponent holds a card. The cards the opponent held when they last
+     * drew are spread evenly over the cards they are likely to hold, and the cards they have drawn
+     * since are spread evenly over every unseen card.
+     *
+     * @param opponentId The id of the opponent
+     * @param card The card
+     * @return The chance, from 0 to 1
+     */
+    public double getHoldingProbability(int opponentId, Card card) {
+        long bit = 1L << card.getOrdinal();
+        if ((unseenCards & bit) == 0) {
+            return 0;
+        }
+        int drawnCards = Math.min(drawsSinceVoid[opponentId], handSizes[opponentId]);
+        double fromDraws = (double) drawnCards / Long.bitCount(unseenCards);
+        if ((notHeldCards[opponentId] & bit) != 0) {
+            return fromDraws;
+        }
+        int heldCards = handSizes[opponentId] - drawnCards;
+        return Math.min(1, (double) heldCards / Long.bitCount(getLikelyCards(opponentId)) + fromDraws);
+    }
+
+    /**
+     * Gives the player their assigned id, as well as a list of the opponents' assigned ids.
+     *
+     * @param playerId The id for this player
+     * @param opponentIds A list of ids for this player's opponents
+     */
+    @Override
+    public void init(int playerId, List<Integer> opponentIds) {
+        this.playerId = playerId;
+        this.numberOfPlayers = opponentIds.size() + 1;
+    }
+
+    /**
+     * Called at the very beginning of the game to deal the player their initial cards. Every other
+     * player is dealt as many cards, and every card but these is unseen.
+     *
+     * @param cards The initial list of cards dealt to this player
+     */
+    @Override
+    public void receiveInitialCards(List<Card> cards) {
+        this.hand.clear();
+        for (Card card : cards) {
+            this.hand.add(card);
+        }
+        unseenCards = ALL_CARDS & ~hand.getMask();
+        discardPile = 0;
+        for (int id = 1; id <= numberOfPlayers; id++) {
+            notHeldCards[id] = 0;
+            drawsSinceVoid[id] = 0;
+            handSizes[id] = cards.size();
+        }
+    }
+
+    @Override
+    public void gameStarted(Card topPileCard) {
+        discard(topPileCard);
+    }
+
+    /**
+     * Tracks a played card, which is no longer unseen. A card that the player was thought not to hold
+     * must have been drawn after their last void.
+     *
+     * @param playerId The id of the player
+     * @param card The card played
+     */
+    @Override
+    public void cardPlayed(int playerId, Card card) {
+        discard(card);
+        if (playerId == this.playerId) {
+            return;
+        }
+        handSizes[playerId]--;
+        if ((notHeldCards[playerId] & 1L << card.getOrdinal()) != 0 && drawsSinceVoid[playerId] > 0) {
+            drawsSinceVoid[playerId]--;
+        }
+    }
+
+    @Override
+    public void suitDeclared(int playerId, Card.Suit suit) {
+        currentSuit = suit.ordinal();
+    }
+
+    /**
+     * Marks every card that the player could have played as not held by them, since they had to draw.
+     *
+     * @param playerId The id of the player
+     */
+    @Override
+    public void cardDrawn(int playerId) {
+        if (playerId == this.playerId) {
+            return;
+        }
+        notHeldCards[playerId] |= Hand.playableMask(topCard, currentSuit);
+        drawsSinceVoid[playerId]++;
+        handSizes[playerId]++;
+    }
+
+    /**
+     * The discarded cards go back into the draw pile, where they are unseen again.
+     */
+    @Override
+    public void discardPileReshuffled() {
+        unseenCards |= discardPile & ~(1L << topCard);
+        discardPile = 1L << topCard;
+    }
+
+    /**
+     * Called to check whether the player wants to draw this turn. The player draws only when it has
+     * nothing it can play.
+     *
+     * @param topPileCard The card currently at the top of the pile
+     * @param pileSuit The suit that the pile was changed to as the result of an "8" being played.
+     * @return whether or not the player wants to draw
+     */
+    @Override
+    public boolean shouldDrawCard(Card topPileCard, Card.Suit pileSuit) {
+        if (pileSuit == null) {
+            pileSuit = topPileCard.getSuit();
+        }
+        playableMask = Hand.playableMask(topPileCard, pileSuit);
+        return (this.hand.getMask() & playableMask) == 0;
+    }
+
+    /**
+     * Called when this player has chosen to draw a card from the deck.
+     *
+     * @param drawnCard The card that this player has drawn
+     */
+    @Override
+    public void receiveCard(Card drawnCard) {
+        this.hand.add(drawnCard);
+        unseenCards &= ~(1L << drawnCard.getOrdinal());
+    }
+
+    /**
+     * Plays the card that leaves the next player with the fewest cards they are likely to hold and
+     * be able to play. Eights are only played when nothing else can be.
+     *
+     * @return The card this player wishes to put on top of the pile
+     */
+    @Override
+    public Card playCard() {
+        long playableCards = this.hand.getMask() & playableMask;
+        if (playableCards == 0) {
+            return null;
+        }
+        long commonCards = playableCards & ~Hand.EIGHTS;
+        if (commonCards == 0) {
+            playedEight = Hand.firstCard(playableCards);
+            this.hand.remove(playedEight);
+            return playedEight;
+        }
+
+        long nextPlayerCards = getLikelyCards(getNextPlayerId());
+        int bestCard = -1;
+        int bestAnswers = Integer.MAX_VALUE;
+        for (long cards = commonCards; cards != 0; cards &= cards - 1) {
+            int card = Long.numberOfTrailingZeros(cards);
+            int answers = Long.bitCount(nextPlayerCards & Hand.playableMask(card, Card.suitOf(card)));
+            if (answers < bestAnswers) {
+                bestCard = card;
+                bestAnswers = answers;
+            }
+        }
+        Card card = Card.fromOrdinal(bestCard);
+        this.hand.remove(card);
+        return card;
+    }
+
+    /**
+     * Declares the suit that leaves the next player with the fewest cards they are likely to be able
+     * to play, out of the suits this player holds, breaking ties by the suit this player has the most
+     * of.
+     *
+     * @return The suit to match
+     */
+    @Override
+    public Card.Suit declareSuit() {
+        long nextPlayerCards = getLikelyCards(getNextPlayerId());
+        long handMask = this.hand.getMask();
+        int eight = playedEight.getOrdinal();
+
+        int bestSuit = Hand.mostCommonSuit(handMask);
+        int bestAnswers = Integer.MAX_VALUE;
+        int bestHeld = 0;
+        for (int suit = 0; suit < Card.NUMBER_OF_SUITS; suit++) {
+            int held = Long.bitCount(handMask & Hand.SUIT_MASKS[suit]);
+            if (held == 0 && handMask != 0) {
+                continue;
+            }
+            int answers = Long.bitCount(nextPlayerCards & Hand.playableMask(eight, suit));
+            if (answers < bestAnswers || answers == bestAnswers && held > bestHeld) {
+                bestSuit = suit;
+                bestAnswers = answers;
+                bestHeld = held;
+            }
+        }
+        return Card.suitFromOrdinal(bestSuit);
+    }
+
+    /**
+     * Called when the game is being reset for the next round.
+     */
+    @Override
+    public void reset() {
+        this.hand.clear();
+    }
+
+    /**
+     * Puts a card on top of the discard pile.
+     *
+     * @param card The card
+     */
+    private void discard(Card card) {
+        int ordinal = card.getOrdinal();
+        discardPile |= 1L << ordinal;
+        unseenCards &= ~(1L << ordinal);
+        topCard = ordinal;
+        currentSuit = Card.suitOf(ordinal);
+    }
+
+    /**
+     * Gets the id of the player whose turn comes after this player's.
+     *
+     * @return The next player's id
+     */
+    private int getNextPlayerId() {
+        return playerId % numberOfPlayers + 1;
+    }
+}
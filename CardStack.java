@@ -0,0 +1,90 @@
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * A stack of cards backed by a fixed array with room for a whole deck.
+ *
+ * Unlike java.util.Stack, none of the methods are synchronized, since a game only ever runs on one
+ * thread. The array is allocated once, so a stack can be refilled and reused for any number of games.
+ */
+public class CardStack {
+
+    private final Card[] cards = new Card[Card.DECK_SIZE];
+    private int size;
+
+    /**
+     * Getters.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets a card by its position, where 0 is the bottom of the stack.
+     *
+     * @param index The position of the card
+     * @return The card at that position
+     */
+    public Card get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for a stack of " + size + " cards");
+        }
+        return cards[index];
+    }
+
+    public void push(Card card) {
+        cards[size++] = card;
+    }
+
+    public Card pop() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        Card card = cards[--size];
+        cards[size] = null;
+        return card;
+    }
+
+    public Card peek() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        return cards[size - 1];
+    }
+
+    /**
+     * Empties the stack.
+     */
+    public void clear() {
+        Arrays.fill(cards, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Fills the stack with the 52 cards of an unshuffled deck, replacing whatever it held before.
+     */
+    public void fillWithDeck() {
+        for (int ordinal = 0; ordinal < Card.DECK_SIZE; ordinal++) {
+            cards[ordinal] = Card.fromOrdinal(ordinal);
+        }
+        size = Card.DECK_SIZE;
+    }
+
+    /**
+     * Shuffles the stack in place with a Fisher-Yates shuffle.
+     *
+     * @param random The random number generator used to shuffle
+     */
+    public void shuffle(SeedableRandom random) {
+        for (int i = size; i > 1; i--) {
+            int j = random.nextInt(i);
+            Card swap = cards[i - 1];
+            cards[i - 1] = cards[j];
+            cards[j] = swap;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * A bounded cache of evaluated opening positions, keyed by DealCanonicalizer keys, which remembers
+ * the best move found for each position along with its estimated value.
+ *
+ * The cache holds a fixed number of entries in preallocated arrays, and evicts with the CLOCK
+ * algorithm: every hit marks its entry as used, and to make room the clock hand sweeps over the
+ * entries, clearing the marks, until it finds one that has not been used since its last pass. Keys
+ * are found through an open addressing index with linear probing. Nothing is allocated after the
+ * cache is created.
+ *
+ * The cache is safe to share between threads. It counts its hits, misses and evictions, so that its
+ * hit rate can be reported with the other metrics.
+ */
+public class DealCache {
+
+    /**
+     * The result of a lookup that found nothing.
+     */
+    public static final long MISS = -1;
+
+    /**
+     * Class variables. The index holds one plus the slot of each key, and 0 for an empty place.
+     */
+    private final long[] keys;
+    private final long[] entries;
+    private final boolean[] isUsed;
+    private final int[] index;
+    private final int indexMask;
+    private int size;
+    private int clockHand;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity The most entries the cache holds
+     */
+    public DealCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A cache needs room for at least one entry, got " + capacity);
+        }
+        keys = new long[capacity];
+        entries = new long[capacity];
+        isUsed = new boolean[capacity];
+        int indexSize = Integer.highestOneBit(capacity * 2 - 1) * 2;
+        index = new int[indexSize];
+        indexMask = indexSize - 1;
+    }
+
+    /**
+     * Getters.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the fraction of lookups that found their position.
+     *
+     * @return The hit rate, or 0 if nothing has been looked up
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key The key of the position
+     * @return The entry, to be read with moveOf() and valueOf(), or MISS
+     */
+    public synchronized long get(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            misses++;
+            return MISS;
+        }
+        hits++;
+        isUsed[slot] = true;
+        return entries[slot];
+    }
+
+    /**
+     * Stores the best move of a position, replacing any entry already stored for it.
+     *
+     * @param key The key of the position
+     * @param move The best move, in the renamed suits of the key
+     * @param value The estimated value of the move
+     */
+    public synchronized void put(long key, int move, float value) {
+        long entry = (long) move << 32 | Float.floatToIntBits(value) & 0xFFFFFFFFL;
+        int slot = find(key);
+        if (slot >= 0) {
+            entries[slot] = entry;
+            return;
+        }
+
+        if (size < keys.length) {
+            slot = size++;
+        } else {
+            while (isUsed[clockHand]) {
+                isUsed[clockHand] = false;
+                clockHand = clockHand + 1 == keys.length ? 0 : clockHand + 1;
+            }
+            slot = clockHand;
+            clockHand = clockHand + 1 == keys.length ? 0 : clockHand + 1;
+            removeFromIndex(keys[slot]);
+            evictions++;
+        }
+        keys[slot] = key;
+        entries[slot] = entry;
+        isUsed[slot] = false;
+        int place = placeOf(key);
+        while (index[place] != 0) {
+            place = place + 1 & indexMask;
+        }
+        index[place] = slot + 1;
+    }
+
+    /**
+     * Empties the cache and resets its counts.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < index.length; i++) {
+            index[i] = 0;
+        }
+        size = 0;
+        clockHand = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Getters for the fields of an entry.
+     */
+    public static int moveOf(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    public static float valueOf(long entry) {
+        return Float.intBitsToFloat((int) entry);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Opening cache: %d hits, %d misses (%.2f%% hit rate), %d evictions, %d of %d entries used",
+                             hits, misses, 100 * getHitRate(), evictions, size, keys.length);
+    }
+
+    /**
+     * Finds the slot of a key.
+     *
+     * @param key The key
+     * @return The slot, or -1 if the key is not in the cache
+     */
+    private int find(long key) {
+        for (int place = placeOf(key); index[place] != 0; place = place + 1 & indexMask) {
+            int slot = index[place] - 1;
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes a key from the index, moving later keys of the same run back so that every key can
+     * still be found by probing from its home place.
+     *
+     * @param key A key in the cache
+     */
+    private void removeFromIndex(long key) {
+        int place = placeOf(key);
+        while (keys[index[place] - 1] != key) {
+            place = place + 1 & indexMask;
+        }
+        int empty = place;
+        for (int next = empty + 1 & indexMask; index[next] != 0; next = next + 1 & indexMask) {
+            int home = placeOf(keys[index[next] - 1]);
+            //Move the key back unless its home lies after the empty place, up to where it is now.
+            if ((next - home & indexMask) >= (next - empty & indexMask)) {
+                index[empty] = index[next];
+                empty = next;
+            }
+        }
+        index[empty] = 0;
+    }
+
+    private int placeOf(long key) {
+        return (int) (key * 0x9E3779B97F4A7C15L >>> 32) & indexMask;
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Maps an opening position to a key that is the same for every position equal to it up to a
+ * renaming of the suits. An opening position is a player's dealt hand, the first card of the discard
+ * pile and the number of players. The suits play no part in the rules beyond having to match, so a
+ * position with hearts and spades swapped everywhere plays out in exactly the same way.
+ *
+ * The suit of the first discard is renamed to the first suit, and the other three suits are renamed
+ * in order of the cards the hand holds in them. Since a hand is a mask with 13 bits per suit, this
+ * only moves four 13 bit blocks around, with no allocation.
+ *
+ * The key holds the hand in its low 52 bits, the rank of the first discard above that, and the number
+ * of players at the top.
+ */
+public final class DealCanonicalizer {
+
+    /**
+     * Constants for the layout of a key.
+     */
+    private static final long SUIT_BLOCK = (1L << Card.NUMBER_OF_RANKS) - 1;
+    private static final int TOP_RANK_SHIFT = Card.DECK_SIZE;
+    private static final int PLAYERS_SHIFT = TOP_RANK_SHIFT + 4;
+
+    private DealCanonicalizer() {
+    }
+
+    /**
+     * Computes the key of an opening position.
+     *
+     * @param hand The mask of the player's hand
+     * @param topCard The ordinal of the first card of the discard pile
+     * @param numberOfPlayers The number of players at the table
+     * @param suitMap An array of four that receives the renamed suit of each suit, or null
+     * @return The key, which is the same for every renaming of the suits
+     */
+    public static long canonicalize(long hand, int topCard, int numberOfPlayers, int[] suitMap) {
+        int topSuit = Card.suitOf(topCard);
+        long topBlock = blockOf(hand, topSuit);
+
+        //Sort the other three suits so that the suit with the largest block comes first.
+        int first = -1;
+        int second = -1;
+        int third = -1;
+        for (int suit = 0; suit < Card.NUMBER_OF_SUITS; suit++) {
+            if (suit == topSuit) {
+                continue;
+            }
+            long block = blockOf(hand, suit);
+            if (first < 0 || block > blockOf(hand, first)) {
+                third = second;
+                second = first;
+                first = suit;
+            } else if (second < 0 || block > blockOf(hand, second)) {
+                third = second;
+                second = suit;
+            } else {
+                third = suit;
+            }
+        }
+
+        if (suitMap != null) {
+            suitMap[topSuit] = 0;
+            suitMap[first] = 1;
+            suitMap[second] = 2;
+            suitMap[third] = 3;
+        }
+        long canonicalHand = topBlock | blockOf(hand, first) << Card.NUMBER_OF_RANKS
+                | blockOf(hand, second) << 2 * Card.NUMBER_OF_RANKS | blockOf(hand, third) << 3 * Card.NUMBER_OF_RANKS;
+        return canonicalHand | (long) Card.rankOf(topCard) << TOP_RANK_SHIFT | (long) numberOfPlayers << PLAYERS_SHIFT;
+    }
+
+    /**
+     * Renames the suits of a move back from the names used in a key.
+     *
+     * @param canonicalMove A move in renamed suits, or GameState.DRAW
+     * @param suitMap The renamed suit of each suit, as filled in by canonicalize()
+     * @return The move in the original suits
+     */
+    public static int toActualMove(int canonicalMove, int[] suitMap) {
+        if (canonicalMove == GameState.DRAW) {
+            return canonicalMove;
+        }
+        int card = GameState.cardOf(canonicalMove);
+        int cardSuit = actualSuit(Card.suitOf(card), suitMap);
+        int declaredSuit = actualSuit(GameState.suitOf(canonicalMove), suitMap);
+        return GameState.play(cardSuit * Card.NUMBER_OF_RANKS + Card.rankOf(card), declaredSuit);
+    }
+
+    /**
+     * Renames the suits of a move to the names used in a key.
+     *
+     * @param move A move, or GameState.DRAW
+     * @param suitMap The renamed suit of each suit, as filled in by canonicalize()
+     * @return The move in renamed suits
+     */
+    public static int toCanonicalMove(int move, int[] suitMap) {
+        if (move == GameState.DRAW) {
+            return move;
+        }
+        int card = GameState.cardOf(move);
+        return GameState.play(suitMap[Card.suitOf(card)] * Card.NUMBER_OF_RANKS + Card.rankOf(card),
+                              suitMap[GameState.suitOf(move)]);
+    }
+
+    private static long blockOf(long hand, int suit) {
+        return hand >>> suit * Card.NUMBER_OF_RANKS & SUIT_BLOCK;
+    }
+
+    private static int actualSuit(int canonicalSuit, int[] suitMap) {
+        for (int suit = 0; suit < Card.NUMBER_OF_SUITS; suit++) {
+            if (suitMap[suit] == canonicalSuit) {
+                return suit;
+            }
+        }
+        throw new IllegalArgumentException("The suit map does not rename any suit to " + canonicalSuit);
+    }
+}
@@ -0,0 +1,333 @@
+/**
+ * Solves the end of a game exactly, for a state where every card is known: the hands, the order of
+ * the draw pile, the top card of the discard pile and the suit to match.
+ *
+ * The solver runs a paranoid alpha-beta search, in which the player to move at the start tries to win
+ * and every other player works together to stop them. A position is worth 1 when that player wins, 0
+ * for a tie and -1 when anyone else wins. Every move is searched, including the choice of suit after
+ * an eight, and the search only stops at the end of the game, so the values are exact.
+ *
+ * Positions are hashed with Zobrist keys, which are updated with a few XORs per move, and looked up in
+ * a TranspositionTable that may be shared with solvers on other threads. Each ply of the search works
+ * on its own preallocated GameState, so a solve allocates nothing.
+ *
+ * A solver is only meant for small states, which canSolve() checks. A search that runs past the node
+ * limit gives up and returns UNKNOWN, so a caller never goes over its time budget.
+ */
+public class EndgameSolver {
+
+    /**
+     * The values of a position, and the result of a search that gave up.
+     */
+    public static final int WIN = 1;
+    public static final int TIE = 0;
+    public static final int LOSS = -1;
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    /**
+     * Constants for the solver.
+     */
+    public static final int DEFAULT_MAXIMUM_CARDS = 20;
+    public static final long DEFAULT_NODE_LIMIT = 200_000;
+    private static final int MAXIMUM_MOVES = 64;
+    private static final int NONE = -1;
+
+    /**
+     * The Zobrist keys: one for each card in each seat's hand, each card at each position of the draw
+     * pile, each top card, each suit to match, each player to move and each player searched for.
+     */
+    private static final long[][] HAND_KEYS = new long[GameState.MAXIMUM_PLAYERS][Card.DECK_SIZE];
+    private static final long[][] DRAW_PILE_KEYS = new long[Card.DECK_SIZE][Card.DECK_SIZE];
+    private static final long[] TOP_CARD_KEYS = new long[Card.DECK_SIZE];
+    private static final long[] SUIT_KEYS = new long[Card.NUMBER_OF_SUITS];
+    private static final long[] PLAYER_KEYS = new long[GameState.MAXIMUM_PLAYERS];
+    private static final long[] PERSPECTIVE_KEYS = new long[GameState.MAXIMUM_PLAYERS];
+
+    static {
+        SeedableRandom random = new SeedableRandom(0x5EED_8888L);
+        for (long[] keys : HAND_KEYS) {
+            fill(keys, random);
+        }
+        for (long[] keys : DRAW_PILE_KEYS) {
+            fill(keys, random);
+        }
+        fill(TOP_CARD_KEYS, random);
+        fill(SUIT_KEYS, random);
+        fill(PLAYER_KEYS, random);
+        fill(PERSPECTIVE_KEYS, random);
+    }
+
+    /**
+     * Class variables.
+     */
+    private final TranspositionTable table;
+    private final int maximumCards;
+    private final long nodeLimit;
+    private final GameState[] states;
+    private final int[][] moves;
+    private int perspective;
+    private long nodes;
+    private boolean isAborted;
+    private int bestRootMove;
+
+    /**
+     * Creates a solver for states of up to DEFAULT_MAXIMUM_CARDS cards in the hands and draw pile.
+     *
+     * @param table The table that solved positions are stored in
+     */
+    public EndgameSolver(TranspositionTable table) {
+        this(table, DEFAULT_MAXIMUM_CARDS, DEFAULT_NODE_LIMIT);
+    }
+
+    /**
+     * Creates a solver.
+     *
+     * @param table The table that solved positions are stored in
+     * @param maximumCards The most cards in the hands and draw pile together that canSolve() accepts
+     * @param nodeLimit The most positions a single search may visit before it gives up
+     */
+    public EndgameSolver(TranspositionTable table, int maximumCards, long nodeLimit) {
+        this.table = table;
+        this.maximumCards = maximumCards;
+        this.nodeLimit = nodeLimit;
+
+        //Every turn either plays a card from a hand or moves one from the draw pile into a hand.
+        int maximumPlies = 2 * maximumCards + 2;
+        this.states = new GameState[maximumPlies + 1];
+        this.moves = new int[maximumPlies + 1][MAXIMUM_MOVES];
+        for (int ply = 0; ply < states.length; ply++) {
+            states[ply] = new GameState();
+        }
+    }
+
+    /**
+     * Gets the number of positions visited by the last search.
+     *
+     * @return The number of nodes
+     */
+    public long getNodesSearched() {
+        return nodes;
+    }
+
+    /**
+     * Checks whether a state is small enough for this solver. The game has to be running, and the
+     * discard pile must not be reshuffled, since a reshuffle could make the game go on forever.
+     *
+     * @param state The state
+     * @return True if the hands and draw pile hold few enough cards
+     */
+    public boolean canSolve(GameState state) {
+        if (state.isOver() || state.isReshuffling()) {
+            return false;
+        }
+        int cards = state.getDrawPileSize();
+        for (int seat = 0; seat < state.getNumberOfPlayers(); seat++) {
+            cards += state.getHandSize(seat);
+        }
+        return cards <= maximumCards;
+    }
+
+    /**
+     * Marks the start of a new decision, so that the table may replace the entries stored for earlier
+     * decisions. solve() does this itself, and a caller that weighs the moves of one decision with
+     * several calls to evaluate() does it once before them.
+     */
+    public void newSearch() {
+        table.newSearch();
+    }
+
+    /**
+     * Finds the best move for the player to move.
+     *
+     * @param state A state that canSolve() accepts, which is left unchanged
+     * @return The best move, or NONE (-1) if the search gave up
+     */
+    public int solve(GameState state) {
+        newSearch();
+        start(state);
+        search(0, hash(states[0]), LOSS, WIN);
+        return isAborted ? NONE : bestRootMove;
+    }
+
+    /**
+     * Works out the exact value of a move for the player to move.
+     *
+     * @param state A state that canSolve() accepts, which is left unchanged
+     * @param move A legal move in that state
+     * @return WIN, TIE or LOSS for the player to move, or UNKNOWN if the search gave up
+     */
+    public int evaluate(GameState state, int move) {
+        start(state);
+        long childHash = hash(states[0]) ^ moveHash(states[0], move);
+        states[1].copyFrom(states[0]);
+        states[1].apply(move);
+        int value = states[1].isOver() ? outcome(states[1]) : search(1, childHash, LOSS, WIN);
+        return isAborted ? UNKNOWN : value;
+    }
+
+    /**
+     * Gets ready for a new search from the given state.
+     *
+     * @param state The state to search from
+     */
+    private void start(GameState state) {
+        if (!canSolve(state)) {
+            throw new IllegalArgumentException("The state is too large for the endgame solver");
+        }
+        states[0].copyFrom(state);
+        perspective = state.getCurrentPlayer();
+        nodes = 0;
+        isAborted = false;
+    }
+
+    /**
+     * Searches a position that is not over. The player searched for takes the highest value and every
+     * other player the lowest, and the search stops looking at moves once the value is outside of the
+     * window from alpha to beta.
+     *
+     * @param ply The depth of the position, whose state is states[ply]
+     * @param hash The Zobrist hash of the position
+     * @param alpha The value the player searched for is already sure of
+     * @param beta The value the other players are already sure of
+     * @return The value of the position, or a bound on it when it is outside of the window
+     */
+    private int search(int ply, long hash, int alpha, int beta) {
+        if (++nodes > nodeLimit) {
+            isAborted = true;
+            return TIE;
+        }
+        long startNodes = nodes;
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+        GameState state = states[ply];
+        int[] plyMoves = moves[ply];
+        int count = state.getLegalMoves(plyMoves);
+
+        long entry = table.probe(hash);
+        if (entry != 0) {
+            int value = TranspositionTable.valueOf(entry);
+            int bound = TranspositionTable.boundOf(entry);
+            //The root is always searched, so that its best move is known.
+            if (ply > 0 && (bound == TranspositionTable.EXACT
+                    || bound == TranspositionTable.LOWER_BOUND && value >= beta
+                    || bound == TranspositionTable.UPPER_BOUND && value <= alpha)) {
+                return value;
+            }
+            moveToFront(plyMoves, count, TranspositionTable.moveOf(entry));
+        }
+
+        boolean isMaximizing = state.getCurrentPlayer() == perspective;
+        int bestValue = isMaximizing ? LOSS - 1 : WIN + 1;
+        int bestMove = plyMoves[0];
+        GameState child = states[ply + 1];
+        for (int i = 0; i < count; i++) {
+            int move = plyMoves[i];
+            long childHash = hash ^ moveHash(state, move);
+            child.copyFrom(state);
+            child.apply(move);
+            int value = child.isOver() ? outcome(child) : search(ply + 1, childHash, alpha, beta);
+            if (isAborted) {
+                return TIE;
+            }
+
+            if (isMaximizing ? value > bestValue : value < bestValue) {
+                bestValue = value;
+                bestMove = move;
+            }
+            if (isMaximizing) {
+                alpha = Math.max(alpha, bestValue);
+            } else {
+                beta = Math.min(beta, bestValue);
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        int bound = bestValue <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : bestValue >= originalBeta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+        table.store(hash, bestValue, bound, bestMove, nodes - startNodes + 1);
+        if (ply == 0) {
+            bestRootMove = bestMove;
+        }
+        return bestValue;
+    }
+
+    /**
+     * Gets the value of a finished game for the player searched for.
+     *
+     * @param state The finished state
+     * @return WIN, TIE or LOSS
+     */
+    private int outcome(GameState state) {
+        int winner = state.getWinner();
+        return winner == perspective ? WIN : winner == GameState.NO_WINNER ? TIE : LOSS;
+    }
+
+    /**
+     * Hashes a whole position.
+     *
+     * @param state The position
+     * @return The Zobrist hash
+     */
+    private long hash(GameState state) {
+        long hash = TOP_CARD_KEYS[state.getTopCard()] ^ SUIT_KEYS[state.getCurrentSuit()]
+                ^ PLAYER_KEYS[state.getCurrentPlayer()] ^ PERSPECTIVE_KEYS[perspective];
+        for (int seat = 0; seat < state.getNumberOfPlayers(); seat++) {
+            for (long cards = state.getHand(seat); cards != 0; cards &= cards - 1) {
+                hash ^= HAND_KEYS[seat][Long.numberOfTrailingZeros(cards)];
+            }
+        }
+        for (int position = 0; position < state.getDrawPileSize(); position++) {
+            hash ^= DRAW_PILE_KEYS[position][state.getDrawPileCard(position)];
+        }
+        return hash;
+    }
+
+    /**
+     * Works out how a move changes the hash of a position, before the move is made. A draw from an
+     * empty draw pile ends the game, so its change does not matter.
+     *
+     * @param state The position
+     * @param move A legal move in that position
+     * @return The keys to XOR into the hash
+     */
+    private static long moveHash(GameState state, int move) {
+        int player = state.getCurrentPlayer();
+        int nextPlayer = player + 1 == state.getNumberOfPlayers() ? 0 : player + 1;
+        long change = PLAYER_KEYS[player] ^ PLAYER_KEYS[nextPlayer];
+        if (move == GameState.DRAW) {
+            if (state.getDrawPileSize() > 0) {
+                int card = state.peekDrawPile();
+                change ^= DRAW_PILE_KEYS[state.getDrawPileSize() - 1][card] ^ HAND_KEYS[player][card];
+            }
+            return change;
+        }
+        int card = GameState.cardOf(move);
+        return change ^ HAND_KEYS[player][card] ^ TOP_CARD_KEYS[state.getTopCard()] ^ TOP_CARD_KEYS[card]
+                ^ SUIT_KEYS[state.getCurrentSuit()] ^ SUIT_KEYS[GameState.suitOf(move)];
+    }
+
+    /**
+     * Moves the best move from an earlier search to the front, so that it is searched first.
+     *
+     * @param moves The moves
+     * @param count The number of moves
+     * @param move The move to search first
+     */
+    private static void moveToFront(int[] moves, int count, int move) {
+        for (int i = 1; i < count; i++) {
+            if (moves[i] == move) {
+                moves[i] = moves[0];
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    private static void fill(long[] keys, SeedableRandom random) {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Checks the endgame solver against a plain minimax search, which has no pruning and no table, on
+ * endgames reached by random play from random deals:
+ *
+ *     java EndgameSolverCheck [ENDGAMES]
+ *
+ * Every endgame is played out with random moves, and at every position on the way, every legal move
+ * is valued by both searches, which have to agree, and the move that solve() picks has to be worth as
+ * much as the best of them. The later positions are ones that the earlier searches have already
+ * stored in the table, often as bounds from a narrower window, so the table's entries get reused.
+ * Each position is checked with a table that is large enough to hold the whole search and with one
+ * that is far too small, so that entries are overwritten all the time. It prints every failed check
+ * and exits with a non-zero status if there were any.
+ */
+public class EndgameSolverCheck {
+
+    /**
+     * Constants for the checks.
+     */
+    private static final int DEFAULT_ENDGAMES = 300;
+    private static final int MAXIMUM_CARDS = EndgameSolver.DEFAULT_MAXIMUM_CARDS;
+    private static final int MINIMUM_PLAYERS = 3;
+    private static final int MAXIMUM_PLAYERS = 6;
+    private static final int MAXIMUM_MOVES = 64;
+    private static final long SEED = 42;
+
+    private static int failedChecks;
+
+    /**
+     * Runs the checks and prints the results.
+     *
+     * @param args Optionally the number of endgames to check.
+     */
+    public static void main(String[] args) {
+        int numberOfEndgames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ENDGAMES;
+        EndgameSolver[] solvers = {
+            new EndgameSolver(new TranspositionTable(1 << 16), MAXIMUM_CARDS, Long.MAX_VALUE),
+            new EndgameSolver(new TranspositionTable(1 << 2), MAXIMUM_CARDS, Long.MAX_VALUE)
+        };
+        SeedableRandom random = new SeedableRandom(SEED);
+        int[] moves = new int[MAXIMUM_MOVES];
+        long movesChecked = 0;
+
+        for (int endgame = 0; endgame < numberOfEndgames; endgame++) {
+            int numberOfPlayers = MINIMUM_PLAYERS + endgame % (MAXIMUM_PLAYERS - MINIMUM_PLAYERS + 1);
+            GameState state = endgame(solvers[0], numberOfPlayers, random);
+            while (!state.isOver()) {
+                int count = state.getLegalMoves(moves);
+                int bestValue = EndgameSolver.LOSS;
+                int[] values = new int[count];
+                for (int i = 0; i < count; i++) {
+                    GameState child = state.copy();
+                    child.apply(moves[i]);
+                    values[i] = minimax(child, state.getCurrentPlayer());
+                    bestValue = Math.max(bestValue, values[i]);
+                }
+
+                for (EndgameSolver solver : solvers) {
+                    solver.newSearch();
+                    for (int i = 0; i < count; i++) {
+                        int value = solver.evaluate(state, moves[i]);
+                        check(value == values[i], "the solver values move " + moves[i] + " in endgame " + endgame
+                                                  + " at " + value + ", and minimax at " + values[i]);
+                        movesChecked++;
+                    }
+
+                    int move = solver.solve(state);
+                    int index = indexOf(moves, count, move);
+                    check(index >= 0 && values[index] == bestValue, "solve() picks a best move in endgame " + endgame);
+                }
+                state.apply(moves[random.nextInt(count)]);
+            }
+        }
+        System.out.println("Checked " + movesChecked + " moves in " + numberOfEndgames + " endgames against minimax");
+
+        if (failedChecks > 0) {
+            System.out.println(failedChecks + " checks failed");
+            System.exit(1);
+        }
+        System.out.println("Every check passed");
+    }
+
+    /**
+     * Plays random moves in a random deal until the solver can take over.
+     *
+     * @param solver The solver that the endgame is meant for.
+     * @param numberOfPlayers The number of players at the table.
+     * @param random The random number generator of the deals and moves.
+     * @return An endgame that the solver accepts.
+     */
+    private static GameState endgame(EndgameSolver solver, int numberOfPlayers, SeedableRandom random) {
+        int[] moves = new int[MAXIMUM_MOVES];
+        while (true) {
+            CardStack deck = Card.getDeck();
+            deck.shuffle(random);
+            GameState state = new GameState();
+            state.reset(numberOfPlayers);
+            for (int seat = 0; seat < numberOfPlayers; seat++) {
+                long hand = 0;
+                for (int i = 0; i < 5; i++) {
+                    hand |= 1L << deck.pop().getOrdinal();
+                }
+                state.setHand(seat, hand);
+            }
+            state.startDiscardPile(deck.pop().getOrdinal());
+            state.setDrawPile(deck);
+            while (!state.isOver() && !solver.canSolve(state)) {
+                state.apply(moves[random.nextInt(state.getLegalMoves(moves))]);
+            }
+            if (!state.isOver()) {
+                return state;
+            }
+        }
+    }
+
+    /**
+     * Values a position the way the solver does, by searching every move to the end of the game: the
+     * perspective player takes the highest value and every other player the lowest.
+     *
+     * @param state The position.
+     * @param perspective The seat that the values are counted for.
+     * @return WIN, TIE or LOSS for the perspective player.
+     */
+    private static int minimax(GameState state, int perspective) {
+        if (state.isOver()) {
+            int winner = state.getWinner();
+            return winner == perspective ? EndgameSolver.WIN
+                    : winner == GameState.NO_WINNER ? EndgameSolver.TIE : EndgameSolver.LOSS;
+        }
+        int[] moves = new int[MAXIMUM_MOVES];
+        int count = state.getLegalMoves(moves);
+        boolean isMaximizing = state.getCurrentPlayer() == perspective;
+        int bestValue = isMaximizing ? EndgameSolver.LOSS : EndgameSolver.WIN;
+        for (int i = 0; i < count; i++) {
+            GameState child = state.copy();
+            child.apply(moves[i]);
+            int value = minimax(child, perspective);
+            bestValue = isMaximizing ? Math.max(bestValue, value) : Math.min(bestValue, value);
+        }
+        return bestValue;
+    }
+
+    private static int indexOf(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Prints a check that failed.
+     *
+     * @param isPassed Whether the check passed.
+     * @param description What was checked.
+     */
+    private static void check(boolean isPassed, String description) {
+        if (!isPassed) {
+            failedChecks++;
+            System.out.println("Failed: " + description);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Microbenchmarks for the hot paths of the game engine and the default bot strategy.
+ *
+ * Every benchmark is warmed up before it is measured, and reports the average time and the number of
+ * bytes allocated per operation. Results can be saved as a baseline and later runs compared against it:
+ *
+ *     java EngineBenchmark --save baseline.properties
+ *     java EngineBenchmark --compare baseline.properties
+ */
+public class EngineBenchmark {
+
+    /**
+     * Constants for the benchmark runs.
+     */
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final long ITERATION_NANOS = 200_000_000L;
+    private static final int[] HAND_SIZES = {5, 15, 30};
+    private static final int MINIMUM_PLAYERS = 3;
+    private static final int MAXIMUM_PLAYERS = 6;
+    private static final int DIFFERENT_HANDS = 16;
+    private static final int DIFFERENT_ENDGAMES = 256;
+    private static final long SEED = 42;
+
+    /**
+     * Something that can be repeated a given number of times. The returned value is folded into a
+     * static checksum so that the work cannot be optimized away.
+     */
+    private interface Operation {
+        long run(long repetitions);
+    }
+
+    /**
+     * The measured cost of a single operation.
+     */
+    private static class Result {
+        private final double nanosPerOperation;
+        private final double bytesPerOperation;
+
+        private Result(double nanosPerOperation, double bytesPerOperation) {
+            this.nanosPerOperation = nanosPerOperation;
+            this.bytesPerOperation = bytesPerOperation;
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static long checksum;
+
+    /**
+     * Runs every benchmark and prints the results.
+     *
+     * @param args Optionally "--save FILE" to record the results as a baseline, or "--compare FILE"
+     *             to compare the results against a recorded baseline.
+     */
+    public static void main(String[] args) throws IOException {
+        String saveFile = null;
+        String compareFile = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--save")) {
+                saveFile = args[i + 1];
+            } else if (args[i].equals("--compare")) {
+                compareFile = args[i + 1];
+            } else {
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Properties baseline = new Properties();
+        if (compareFile != null) {
+            try (InputStream in = new FileInputStream(compareFile)) {
+                baseline.load(in);
+            }
+        }
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Operation> benchmark : benchmarks().entrySet()) {
+            Result result = measure(benchmark.getValue());
+            results.put(benchmark.getKey(), result);
+            printResult(benchmark.getKey(), result, baseline);
+        }
+
+        if (saveFile != null) {
+            Properties saved = new Properties();
+            for (Map.Entry<String, Result> result : results.entrySet()) {
+                saved.setProperty(result.getKey(), Double.toString(result.getValue().nanosPerOperation));
+            }
+            try (OutputStream out = new FileOutputStream(saveFile)) {
+                saved.store(out, "EngineBenchmark baseline, in nanoseconds per operation");
+            }
+        }
+    }
+
+    /**
+     * Builds every benchmark, in the order that they are run.
+     *
+     * @return The benchmarks by name.
+     */
+    private static Map<String, Operation> benchmarks() {
+        Map<String, Operation> benchmarks = new LinkedHashMap<>();
+
+        benchmarks.put("Card.getDeck", repetitions -> {
+            long sum = 0;
+            for (long i = 0; i < repetitions; i++) {
+                sum += Card.getDeck().size();
+            }
+            return sum;
+        });
+
+        GameEngine shuffleEngine = new GameEngine(SEED);
+        CardStack shuffleDeck = Card.getDeck();
+        benchmarks.put("GameEngine.shuffleDeck", repetitions -> {
+            long sum = 0;
+            for (long i = 0; i < repetitions; i++) {
+                sum += shuffleEngine.shuffleDeck(shuffleDeck).peek().getOrdinal();
+            }
+            return sum;
+        });
+
+        for (int handSize : HAND_SIZES) {
+            Player player = playerWithHand(handSize, SEED);
+            Card[] topCards = topCards();
+            benchmarks.put("Player.shouldDrawCard handSize=" + handSize, repetitions -> {
+                long sum = 0;
+                for (long i = 0; i < repetitions; i++) {
+                    Card topCard = topCards[(int) (i % topCards.length)];
+                    sum += player.shouldDrawCard(topCard, topCard.getSuit()) ? 1 : 0;
+                }
+                return sum;
+            });
+        }
+
+        for (int handSize : HAND_SIZES) {
+            Player player = playerWithHand(handSize, SEED);
+            Card[] topCards = topCards();
+            benchmarks.put("Player.playCard handSize=" + handSize, repetitions -> {
+                long sum = 0;
+                for (long i = 0; i < repetitions; i++) {
+                    Card topCard = topCards[(int) (i % topCards.length)];
+                    if (!player.shouldDrawCard(topCard, topCard.getSuit())) {
+                        Card playedCard = player.playCard();
+                        player.receiveCard(playedCard);
+                        sum += playedCard.getOrdinal();
+                    }
+                }
+                return sum;
+            });
+        }
+
+        for (int handSize : HAND_SIZES) {
+            //Cycle through different hands, or the JIT hoists the call out of the loop.
+            Player[] players = new Player[DIFFERENT_HANDS];
+            for (int i = 0; i < players.length; i++) {
+                players[i] = playerWithHand(handSize, SEED + i);
+            }
+            benchmarks.put("Player.declareSuit handSize=" + handSize, repetitions -> {
+                long sum = 0;
+                for (long i = 0; i < repetitions; i++) {
+                    sum += players[(int) (i % players.length)].declareSuit().ordinal();
+                }
+                return sum;
+            });
+        }
+
+        for (int numberOfPlayers = MINIMUM_PLAYERS; numberOfPlayers <= MAXIMUM_PLAYERS; numberOfPlayers++) {
+            GameEngine gameEngine = new GameEngine(SEED);
+            int players = numberOfPlayers;
+            benchmarks.put("GameEngine.simulateGames players=" + numberOfPlayers, repetitions -> {
+                return gameEngine.simulateGames((int) repetitions, players).getTies();
+            });
+        }
+
+        for (int numberOfPlayers = MINIMUM_PLAYERS; numberOfPlayers <= MAXIMUM_PLAYERS; numberOfPlayers++) {
+            BatchGameEngine batchEngine = new BatchGameEngine(SEED);
+            int players = numberOfPlayers;
+            benchmarks.put("BatchGameEngine.simulateGames players=" + numberOfPlayers, repetitions -> {
+                return batchEngine.simulateGames(repetitions, players).getTies();
+            });
+        }
+
+        GameEngine matchEngine = new GameEngine(SEED);
+        List<String> matchPlayers = Collections.nCopies(4, "greedy");
+        benchmarks.put("GameEngine.simulateMatches players=4 target=100", repetitions -> {
+            return matchEngine.simulateMatches((int) repetitions, matchPlayers, 100).getTies();
+        });
+
+        GameEngine meteredEngine = new GameEngine(SEED);
+        meteredEngine.setMetrics(new GameMetrics());
+        benchmarks.put("GameEngine.simulateGames players=4 metrics", repetitions -> {
+            return meteredEngine.simulateGames((int) repetitions, 4).getTies();
+        });
+
+        for (int numberOfPlayers = MINIMUM_PLAYERS; numberOfPlayers <= MAXIMUM_PLAYERS; numberOfPlayers += 3) {
+            EndgameSolver solver = new EndgameSolver(new TranspositionTable(1 << 12));
+            GameState[] endgames = endgames(solver, numberOfPlayers);
+            benchmarks.put("EndgameSolver.solve players=" + numberOfPlayers, repetitions -> {
+                long sum = 0;
+                for (long i = 0; i < repetitions; i++) {
+                    sum += solver.solve(endgames[(int) (i % endgames.length)]);
+                }
+                return sum;
+            });
+        }
+        return benchmarks;
+    }
+
+    /**
+     * Plays random moves in random deals until the solver can take over, to get a fixed set of
+     * endgames.
+     *
+     * @param solver The solver that the endgames are meant for.
+     * @param numberOfPlayers The number of players at the table.
+     * @return Endgames that the solver accepts.
+     */
+    private static GameState[] endgames(EndgameSolver solver, int numberOfPlayers) {
+        SeedableRandom random = new SeedableRandom(SEED);
+        GameState[] endgames = new GameState[DIFFERENT_ENDGAMES];
+        int[] moves = new int[64];
+        int found = 0;
+        while (found < endgames.length) {
+            CardStack deck = Card.getDeck();
+            deck.shuffle(random);
+            GameState state = new GameState();
+            state.reset(numberOfPlayers);
+            for (int seat = 0; seat < numberOfPlayers; seat++) {
+                long hand = 0;
+                for (int i = 0; i < 5; i++) {
+                    hand |= 1L << deck.pop().getOrdinal();
+                }
+                state.setHand(seat, hand);
+            }
+            state.startDiscardPile(deck.pop().getOrdinal());
+            state.setDrawPile(deck);
+            while (!state.isOver() && !solver.canSolve(state)) {
+                state.apply(moves[random.nextInt(state.getLegalMoves(moves))]);
+            }
+            if (!state.isOver()) {
+                endgames[found++] = state;
+            }
+        }
+        return endgames;
+    }
+
+    /**
+     * Deals a bot a hand of the given size from a shuffled deck.
+     *
+     * @param handSize The number of cards in the hand.
+     * @param seed The seed of the shuffle.
+     * @return A bot holding that many cards.
+     */
+    private static Player playerWithHand(int handSize, long seed) {
+        CardStack deck = Card.getDeck();
+        deck.shuffle(new SeedableRandom(seed));
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < handSize; i++) {
+            cards.add(deck.pop());
+        }
+        Player player = new Player();
+        player.init(1, new ArrayList<>());
+        player.receiveInitialCards(cards);
+        return player;
+    }
+
+    /**
+     * Gets a fixed, shuffled sequence of cards for the top of the discard pile.
+     *
+     * @return Every card in the deck in a shuffled order.
+     */
+    private static Card[] topCards() {
+        CardStack deck = Card.getDeck();
+        deck.shuffle(new SeedableRandom(SEED + 1));
+        Card[] topCards = new Card[deck.size()];
+        for (int i = 0; i < topCards.length; i++) {
+            topCards[i] = deck.pop();
+        }
+        return topCards;
+    }
+
+    /**
+     * Warms up and then measures an operation. Each iteration doubles the repetitions until the
+     * iteration takes long enough to time reliably.
+     *
+     * @param operation The operation to be measured.
+     * @return The average time and allocation per operation over the measured iterations.
+     */
+    private static Result measure(Operation operation) {
+        long repetitions = 1;
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+            long startTime = System.nanoTime();
+            checksum += operation.run(repetitions);
+            long elapsedTime = System.nanoTime() - startTime;
+            while (elapsedTime < ITERATION_NANOS && repetitions < Integer.MAX_VALUE / 2) {
+                repetitions *= 2;
+                startTime = System.nanoTime();
+                checksum += operation.run(repetitions);
+                elapsedTime = System.nanoTime() - startTime;
+            }
+        }
+
+        long thread = Thread.currentThread().getId();
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (int iteration = 0; iteration < MEASUREMENT_ITERATIONS; iteration++) {
+            long startBytes = THREADS.getThreadAllocatedBytes(thread);
+            long startTime = System.nanoTime();
+            checksum += operation.run(repetitions);
+            totalNanos += System.nanoTime() - startTime;
+            totalBytes += THREADS.getThreadAllocatedBytes(thread) - startBytes;
+        }
+        double operations = (double) repetitions * MEASUREMENT_ITERATIONS;
+        return new Result(totalNanos / operations, totalBytes / operations);
+    }
+
+    /**
+     * Prints a result, along with the change from the baseline when the baseline has this benchmark.
+     *
+     * @param name The name of the benchmark.
+     * @param result The measured result.
+     * @param baseline The recorded baseline, which may be empty.
+     */
+    private static void printResult(String name, Result result, Properties baseline) {
+        String line = String.format("%-50s %12.1f ns/op %10.1f B/op", name, result.nanosPerOperation,
+                                    result.bytesPerOperation);
+        String baselineNanos = baseline.getProperty(name);
+        if (baselineNanos != null) {
+            double change = 100 * (result.nanosPerOperation / Double.parseDouble(baselineNanos) - 1);
+            line += String.format("   %+7.1f%% vs baseline", change);
+        }
+        System.out.println(line);
+    }
+}
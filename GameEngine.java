@@ -1,5 +1,6 @@
+import java.io.PrintStream;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 
 /**
  * Represents the game engine of Crazy 8's.
@@ -13,354 +14,976 @@ public class GameEngine {
     private static final int MAXIMUM_PLAYERS = 6;
     private static final int STARTING_HAND_CARDS_NUMBER = 5;
 
+    /**
+     * The id given to the onGameOver callback of a paced game that was stopped because a turn threw.
+     */
+    public static final int FAILED_GAME = -1;
+
+    /**
+     * What a seat can see of the game, which is what the engine hands to a StateAwareStrategy. The
+     * view only reads the engine's state, and its copies have the other players' hands and the draw
+     * pile concealed, so a strategy can neither change the game nor look at the cards it should not
+     * see.
+     */
+    private class SeatView implements GameStateView {
+        private final int seat;
+
+        private SeatView(int seat) {
+            this.seat = seat;
+        }
+
+        @Override
+        public int getNumberOfPlayers() {
+            return state.getNumberOfPlayers();
+        }
+
+        /**
+         * Gets the cards in the viewing seat's hand. The other hands are hidden.
+         *
+         * @param seat The seat, numbered from 0
+         * @return The mask of the cards in the seat's hand
+         */
+        @Override
+        public long getHand(int seat) {
+            if (seat != this.seat) {
+                throw new IllegalArgumentException("Seat " + (this.seat + 1) + " cannot see the hand of seat " + (seat + 1));
+            }
+            return state.getHand(seat);
+        }
+
+        @Override
+        public int getHandSize(int seat) {
+            return state.getHandSize(seat);
+        }
+
+        @Override
+        public int getDrawPileSize() {
+            return state.getDrawPileSize();
+        }
+
+        @Override
+        public long getDiscardPile() {
+            return state.getDiscardPile();
+        }
+
+        @Override
+        public int getTopCard() {
+            return state.getTopCard();
+        }
+
+        @Override
+        public int getCurrentSuit() {
+            return state.getCurrentSuit();
+        }
+
+        @Override
+        public int getCurrentPlayer() {
+            return state.getCurrentPlayer();
+        }
+
+        @Override
+        public boolean isOver() {
+            return state.isOver();
+        }
+
+        @Override
+        public int getWinner() {
+            return state.getWinner();
+        }
+
+        @Override
+        public long getPlayableCards() {
+            return state.getCurrentPlayer() == seat ? state.getPlayableCards() : 0;
+        }
+
+        @Override
+        public int getLegalMoves(int[] moves) {
+            return state.getCurrentPlayer() == seat ? state.getLegalMoves(moves) : 0;
+        }
+
+        @Override
+        public GameState copy() {
+            GameState copy = state.copy();
+            copy.conceal(seat);
+            return copy;
+        }
+
+        @Override
+        public void copyInto(GameState target) {
+            state.copyInto(target);
+            target.conceal(seat);
+        }
+    }
+
     /**
      * Class variables for the game engine.
      */
     private int numberOfPlayers = 0;
-    private Stack<Card> deck = Card.getDeck();
-    private boolean isGameOngoing = true;
-    private Stack<Card> drawPile = new Stack<>();
-    private Stack<Card> discardPile = new Stack<>();
-    private Card.Suit currentSuit;
-    private List<Player> players = new ArrayList<>();
+    private GameState state = new GameState();
+    private final SeatView[] seatViews = new SeatView[MAXIMUM_PLAYERS];
+    private CardStack deck = new CardStack();
+    private List<Seat> seats = new ArrayList<>();
+    private List<GameObserver> observers = new ArrayList<>();
+    private boolean isNarrated = true;
+    private TurnPacer pacer = RealTimePacer.getDefault();
+    private TurnPacer gamePacer = pacer;
+    private boolean isSteppingTurns = false;
+    private long pendingPauseMillis;
+    private int nextSeatIndex;
+    private int roundsPlayed;
+    private boolean isReshufflingDiscardPile = false;
+    private GameMetrics metrics;
+    private GameEventLog eventLog;
+    private GameResultStore resultStore;
+    private List<Seat> resultStoreSeats;
+    private int[] resultStoreStrategies;
+    private PrintStream out = System.out;
+    private int turnCount;
+    private int drawCount;
+    private int eightCount;
+    private int declarationCount;
+    private int winnerId = 0;
+    private SplittableRandom gameSeeds;
+    private SeedableRandom random;
+    private long lastGameSeed;
 
     /**
-     * Getter for the players.
+     * Creates a game engine with a randomly chosen seed.
+     */
+    public GameEngine() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a game engine whose games are all determined by the given seed. Every game gets its
+     * own seed drawn from the engine's seed, so any single game can be replayed with replayGame().
+     * Engines that run on different threads should each be given their own seed.
+     *
+     * @param seed The seed for this engine's games.
+     */
+    public GameEngine(long seed) {
+        this.gameSeeds = new SplittableRandom(seed);
+        this.random = new SeedableRandom(seed);
+    }
+
+    /**
+     * Getter for the seed of the most recently started game.
+     *
+     * @return The seed that replays the last game.
+     */
+    public long getLastGameSeed() {
+        return lastGameSeed;
+    }
+
+    /**
+     * Getter for the state of the current game. The engine keeps changing the state as the game goes
+     * on, so it has to be copied to be kept.
+     *
+     * @return A read-only view of the state.
+     */
+    public GameStateView getState() {
+        return state;
+    }
+
+    /**
+     * Gets the number of cards in a player's hand.
+     *
+     * @param playerId The id of the player.
+     * @return The size of the player's hand.
+     */
+    public int getHandSize(int playerId) {
+        return state.getHandSize(playerId - 1);
+    }
+
+    public TurnPacer getPacer() {
+        return pacer;
+    }
+
+    /**
+     * Sets how the engine waits between actions in the games that people follow along with: real
+     * time by default, or a VirtualClockPacer to play them without waiting, as PacedGameCheck does.
+     * Simulated and replayed games always use the ZeroDelayPacer.
      *
-     * @return Players.
+     * @param pacer The pacer
      */
-    public List<Player> getPlayers() {
-        return players;
+    public void setPacer(TurnPacer pacer) {
+        this.pacer = pacer;
     }
 
+    public boolean isReshufflingDiscardPile() {
+        return isReshufflingDiscardPile;
+    }
+
+    /**
+     * Sets what happens when a player has to draw from an empty draw pile. By default the game ends in
+     * a tie; with reshuffling on, every card of the discard pile but the top card is shuffled back into
+     * the draw pile and the game goes on.
+     *
+     * @param isReshufflingDiscardPile True to reshuffle the discard pile, false to end the game in a tie
+     */
+    public void setReshufflingDiscardPile(boolean isReshufflingDiscardPile) {
+        this.isReshufflingDiscardPile = isReshufflingDiscardPile;
+    }
+
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets where the engine records the statistics of its games and the time each strategy callback
+     * takes. The same metrics can be shared by engines on different threads.
+     *
+     * @param metrics The metrics to record into, or null to record nothing
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public GameEventLog getEventLog() {
+        return eventLog;
+    }
+
+    /**
+     * Sets where the engine records the events of its games. The engine does not wait for the log to
+     * be written, so whoever sets the log closes it once the games are over.
+     *
+     * @param eventLog The log to record into, or null to record nothing
+     */
+    public void setEventLog(GameEventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+
+    public GameResultStore getResultStore() {
+        return resultStore;
+    }
+
+    /**
+     * Sets where the engine appends the result of every game it finishes. The same store can be
+     * shared by engines on different threads.
+     *
+     * @param resultStore The store to append to, or null to store nothing
+     */
+    public void setResultStore(GameResultStore resultStore) {
+        this.resultStore = resultStore;
+        this.resultStoreSeats = null;
+    }
+
+    /**
+     * Getter for the seats.
+     *
+     * @return The seats at the table, in turn order.
+     */
+    public List<Seat> getSeats() {
+        return seats;
+    }
 
     /**
      * Method that allows for individual games to be played.
      */
     public void playGame() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("Welcome to Crazy 8's! How many bots would you like to play against? " + 
+        playGame(new Scanner(System.in), System.out);
+    }
+
+    /**
+     * Plays a game against the bots with a user who reads and types on the given streams, such as a
+     * connection to the game server. Everything the engine narrates goes to the same stream.
+     *
+     * @param scanner The scanner reading the user's input.
+     * @param out The stream that the game is shown on.
+     */
+    public void playGame(Scanner scanner, PrintStream out) {
+        this.out = out;
+        out.println("Welcome to Crazy 8's! How many bots would you like to play against? " + 
                             "You can play against 2 bots, or against up to 5: ");
-        numberOfPlayers = scanner.nextInt() + 1;
+        numberOfPlayers = nextNumberOfBots(scanner) + 1;
         while (numberOfPlayers < MINIMUM_PLAYERS || numberOfPlayers > MAXIMUM_PLAYERS) {
             //If the given number of players is invalid, the game cannot be played.
-            System.out.println("That is an invalid number of bots. Please enter a number between 1 and 5.");
-            Scanner scanner4 = new Scanner(System.in);
-            numberOfPlayers = scanner4.nextInt() + 1;
+            out.println("That is an invalid number of bots. Please enter a number between 1 and 5.");
+            numberOfPlayers = nextNumberOfBots(scanner) + 1;
         }
+        scanner.nextLine();
+
+        //Initialize players. The game cannot be played with less than 3 or more than 6 players.
+        letPlayersJoinMatch(numberOfPlayers, new HumanPlayer(scanner, out));
+        isNarrated = true;
+        gamePacer = pacer;
+        isSteppingTurns = false;
+        out.println("\nA new game has begun.");
+        startNewGame(gameSeeds.nextLong());
+        while (!state.isOver()) {
+            playersPlayTurns();
+        }
+        recordGameMetrics();
+        recordGameResult();
 
-        //Initialize players. The game cannot be played with less than 4 or more than 9 players.
-        letPlayersJoinMatch(numberOfPlayers);
-        System.out.println("\nA new game has begun.");
-        shuffleDeck(deck);
-        dealCards();
-        drawPile = deck;
+    }
 
-        //If the top card of the draw pile is an 8, shuffle it back and draw another card to discard.
-        while (drawPile.peek().getRank().equals(Card.Rank.EIGHT)) {
-            shuffleDeck(drawPile);
+    /**
+     * Reads the number of bots that the user asked for. Input that is not a number is skipped along
+     * with the rest of its line, instead of ending the user's session.
+     *
+     * @param scanner The scanner reading the user's input.
+     * @return The number, or -1 if the user typed something else.
+     */
+    private static int nextNumberOfBots(Scanner scanner) {
+        if (!scanner.hasNextInt()) {
+            scanner.nextLine();
+            return -1;
         }
+        return scanner.nextInt();
+    }
 
-        //Discard the top card of the draw pile and set the current suit.
-        currentSuit = drawPile.peek().getSuit();
-        discardPile.push(drawPile.pop());
-        while (isGameOngoing) {
-            playersPlayTurns();
+    /**
+     * Plays a number of games back to back between greedy bots. Nothing is printed and the bots do
+     * not pause between turns.
+     *
+     * @param numberOfGames The number of games to be played.
+     * @param numberOfPlayers The number of bots seated at the table.
+     * @return The win and tie statistics over all of the games played.
+     */
+    public SimulationResults simulateGames(int numberOfGames, int numberOfPlayers) {
+        return simulateGames(numberOfGames, Collections.nCopies(numberOfPlayers, StrategyRegistry.GREEDY));
+    }
+
+    /**
+     * Plays a number of games back to back in which every seat is a bot. Nothing is printed and the
+     * bots do not pause between turns, which makes this suitable for evaluating bot strategies.
+     *
+     * @param numberOfGames The number of games to be played.
+     * @param strategyNames The registered name of the strategy in each seat, in turn order.
+     * @return The win and tie statistics over all of the games played.
+     */
+    public SimulationResults simulateGames(int numberOfGames, List<String> strategyNames) {
+        isNarrated = false;
+        gamePacer = ZeroDelayPacer.INSTANCE;
+        isSteppingTurns = false;
+        seatBots(strategyNames);
+
+        SimulationResults results = new SimulationResults(strategyNames);
+        for (int game = 0; game < numberOfGames; game++) {
+            playBotGame(gameSeeds.nextLong());
+            if (winnerId == 0) {
+                results.recordTie();
+            } else {
+                results.recordWin(winnerId);
+            }
         }
+        return results;
+    }
 
+    /**
+     * Plays a number of games back to back between the given bots. The bots are seated as they are,
+     * rather than created from the registry, so that they can be configured first and reused between
+     * calls. The games are dealt from the given seed, so two calls with the same seed and number of
+     * players deal the same games.
+     *
+     * @param numberOfGames The number of games to be played.
+     * @param strategies The strategy in each seat, in turn order.
+     * @param seed The seed that the games' seeds are drawn from, which replaces this engine's seed.
+     * @return The win and tie statistics over all of the games played.
+     */
+    public SimulationResults simulateSeededGames(int numberOfGames, List<PlayerStrategy> strategies, long seed) {
+        List<String> strategyNames = seatStrategies(strategies);
+        gameSeeds = new SplittableRandom(seed);
+
+        SimulationResults results = new SimulationResults(strategyNames);
+        for (int game = 0; game < numberOfGames; game++) {
+            playSeededGame(gameSeeds.nextLong());
+            if (winnerId == 0) {
+                results.recordTie();
+            } else {
+                results.recordWin(winnerId);
+            }
+        }
+        return results;
     }
 
     /**
-     * Loops through all of the players and allows them to play their turn.
+     * Seats the given bots as they are, so that playSeededGame() can play any number of single games
+     * between them without seating them again.
+     *
+     * @param strategies The strategy in each seat, in turn order.
+     * @return The name of the strategy in each seat, which is its class name.
      */
-    private void playersPlayTurns() {
+    public List<String> seatStrategies(List<PlayerStrategy> strategies) {
+        List<String> strategyNames = new ArrayList<>();
+        for (PlayerStrategy strategy : strategies) {
+            strategyNames.add(strategy.getClass().getSimpleName());
+        }
+        seatStrategies(strategies, strategyNames);
+        return strategyNames;
+    }
 
-        //When win or tie, change isGameOngoing to false;
-        for (Player player : players) {
+    /**
+     * Plays one game between the bots seated by seatStrategies(). Nothing is printed and the bots do
+     * not pause. The same seed and bots always play the same game, the one that replayGame() replays.
+     *
+     * @param gameSeed The seed of the game.
+     * @return The id of the winning player, or 0 if the game ended in a tie.
+     */
+    public int playSeededGame(long gameSeed) {
+        isNarrated = false;
+        gamePacer = ZeroDelayPacer.INSTANCE;
+        isSteppingTurns = false;
+        playBotGame(gameSeed);
+        return winnerId;
+    }
+
+    /**
+     * Plays a match between bots: rounds are played until a player's penalty points reach the target
+     * score, and the player with the fewest points wins. At the end of each round, every player scores
+     * the penalty points of the cards left in their hand: 50 for an eight, 10 for a face card, 1 for an
+     * ace and the face value for the other cards. Nothing is printed and the bots do not pause.
+     *
+     * @param strategyNames The registered name of the strategy in each seat, in turn order.
+     * @param targetScore The score that ends the match.
+     * @return The id of the winning player, or 0 if the match ended in a tie.
+     */
+    public int playMatch(List<String> strategyNames, int targetScore) {
+        isNarrated = false;
+        gamePacer = ZeroDelayPacer.INSTANCE;
+        isSteppingTurns = false;
+        seatBots(strategyNames);
+        return playMatchRounds(targetScore);
+    }
 
-            System.out.println("\nThe card on top of the discard pile is a " + discardPile.peek().getRank() + 
-                                    " of " + discardPile.peek().getSuit() + " and the declared suit to match is " + currentSuit);
-            try {
-                Thread.sleep(1500);
-            } catch (InterruptedException e) {
-                System.out.print("");
+    /**
+     * Plays a number of matches back to back between the same bots. The bots are seated once and reset
+     * before every round, and every round reuses the engine's deck, game state and dealt card lists,
+     * so a long run of matches does not allocate anything per round.
+     *
+     * @param numberOfMatches The number of matches to be played.
+     * @param strategyNames The registered name of the strategy in each seat, in turn order.
+     * @param targetScore The score that ends a match.
+     * @return The win and tie statistics over all of the matches played.
+     */
+    public SimulationResults simulateMatches(int numberOfMatches, List<String> strategyNames, int targetScore) {
+        isNarrated = false;
+        gamePacer = ZeroDelayPacer.INSTANCE;
+        isSteppingTurns = false;
+        seatBots(strategyNames);
+
+        SimulationResults results = new SimulationResults(strategyNames);
+        for (int match = 0; match < numberOfMatches; match++) {
+            int matchWinnerId = playMatchRounds(targetScore);
+            if (matchWinnerId == 0) {
+                results.recordTie();
+            } else {
+                results.recordWin(matchWinnerId);
             }
-            if(player.getPlayerId() != numberOfPlayers) {
+        }
+        return results;
+    }
 
-                botTurns(player);
-                if (!isGameOngoing) break;
+    /**
+     * Gets the number of rounds in the last match.
+     *
+     * @return The number of rounds played.
+     */
+    public int getRoundsPlayed() {
+        return roundsPlayed;
+    }
 
-            } else {
-                
-                userTurn(player);
-                if (!isGameOngoing) break;
+    /**
+     * Plays the rounds of a match between the seated players.
+     *
+     * @param targetScore The score that ends the match.
+     * @return The id of the winning player, or 0 if the match ended in a tie.
+     */
+    private int playMatchRounds(int targetScore) {
+        if (targetScore <= 0) {
+            throw new IllegalArgumentException("The target score of a match must be positive, got " + targetScore);
+        }
+        for (Seat seat : seats) {
+            seat.setScore(0);
+        }
+        roundsPlayed = 0;
+
+        int highestScore = 0;
+        while (highestScore < targetScore) {
+            for (Seat seat : seats) {
+                seat.getStrategy().reset();
+            }
+            playBotGame(gameSeeds.nextLong());
+            roundsPlayed++;
 
+            //Every player scores the cards left in their hand, so the round's winner scores nothing.
+            for (Seat seat : seats) {
+                seat.setScore(seat.getScore() + Hand.penaltyPoints(state.getHand(seat.getPlayerId() - 1)));
+                highestScore = Math.max(highestScore, seat.getScore());
             }
         }
-        try {
-            Thread.sleep(1500);
-        } catch (InterruptedException e) {
-            System.out.print("");
+
+        //The player with the fewest points wins the match.
+        int matchWinnerId = 0;
+        int lowestScore = Integer.MAX_VALUE;
+        for (Seat seat : seats) {
+            if (seat.getScore() < lowestScore) {
+                matchWinnerId = seat.getPlayerId();
+                lowestScore = seat.getScore();
+            } else if (seat.getScore() == lowestScore) {
+                matchWinnerId = 0;
+            }
         }
-        if (isGameOngoing) System.out.println("\n\n----------NEW TURN----------\n\n");
+        return matchWinnerId;
     }
 
     /**
-     * Allows a bot to play their turn.
-     * 
-     * @param player The bot playing the turn.
-     */
-    private void botTurns(Player player) {
-        //If bot should draw a card, draw. Else, play a card.
-        if (player.shouldDrawCard(discardPile.peek(), currentSuit)) {
-            if (drawPile.size() == 0) {
-                isGameOngoing = false;
-                System.out.println("The draw pile is out of cards. The game ends in a tie.");
-                return;
-            }
-            player.receiveCard(drawPile.pop());
-            System.out.println("Player " + player.getPlayerId() + " has drawn a card.");
-            try {
-                Thread.sleep(1500);
-            } catch (InterruptedException e) {
-                System.out.print("");
-            }
+     * Replays a game between bots from its seed, printing every action as it happens. The game is
+     * played exactly as it was the first time, as long as the same bots are seated.
+     *
+     * @param gameSeed The seed of the game, as given by getLastGameSeed().
+     * @param strategyNames The registered name of the strategy in each seat, in turn order.
+     * @return The id of the winning player, or 0 if the game ended in a tie.
+     */
+    public int replayGame(long gameSeed, List<String> strategyNames) {
+        isNarrated = true;
+        gamePacer = ZeroDelayPacer.INSTANCE;
+        isSteppingTurns = false;
+        seatBots(strategyNames);
+        playBotGame(gameSeed);
+        return winnerId;
+    }
 
-            
-        } else {
+    /**
+     * Plays a whole game between the seated bots.
+     *
+     * @param gameSeed The seed that determines the shuffles of this game.
+     */
+    private void playBotGame(long gameSeed) {
+        startNewGame(gameSeed);
+        while (!state.isOver()) {
+            playersPlayTurns();
+        }
+        recordGameMetrics();
+        recordGameResult();
+    }
 
-            //Check if the card played is legal, then play it.
-            Card playedCard = player.playCard();
-            
-            discardPile.push(playedCard);
-            System.out.println("Player " + player.getPlayerId() + " has played a " + playedCard.getRank() + " of " + playedCard.getSuit());
-            currentSuit = playedCard.getSuit();
-            try {
-                Thread.sleep(1500);
-            } catch (InterruptedException e) {
-                System.out.print("");
-            }
-            //Check if a player has won. If the game is won, end the game.
-            checkWonGame(player);
-            if (!isGameOngoing) {
-                return;
-            }
+    /**
+     * Records the totals of the game that just ended, if the engine has metrics.
+     */
+    private void recordGameMetrics() {
+        if (metrics != null) {
+            metrics.recordGame(turnCount, drawCount, eightCount, declarationCount);
+        }
+    }
 
-            //If the player just played an 8, bot gets to declare the next suit.
-            if (discardPile.peek().getRank().equals(Card.Rank.EIGHT)) {
-                currentSuit = player.declareSuit();
-                System.out.println("\nBecause this player played an eight, they've declared the new suit to match to be " + currentSuit);
+    /**
+     * Appends the result of the game that just ended, if the engine has a result store. The seats'
+     * strategies are looked up in the store once per seating.
+     */
+    private void recordGameResult() {
+        if (resultStore == null) {
+            return;
+        }
+        if (resultStoreSeats != seats) {
+            resultStoreSeats = seats;
+            resultStoreStrategies = new int[seats.size()];
+            for (Seat seat : seats) {
+                resultStoreStrategies[seat.getPlayerId() - 1] = resultStore.strategyIndexOf(seat.getStrategyName());
             }
         }
+        resultStore.append(lastGameSeed, numberOfPlayers, winnerId, turnCount, drawCount, eightCount,
+                           resultStoreStrategies);
     }
 
     /**
-     * Allows for user input for the turn.
-     * 
-     * @param player The user to play the turn.
+     * Shuffles a fresh deck, deals the players their cards and turns over the first card of the
+     * discard pile.
+     *
+     * @param gameSeed The seed that determines the shuffles of this game.
+     */
+    private void startNewGame(long gameSeed) {
+        lastGameSeed = gameSeed;
+        random.setSeed(gameSeed);
+        deck.fillWithDeck();
+        state.reset(numberOfPlayers);
+        winnerId = 0;
+        nextSeatIndex = 0;
+        if (eventLog != null) eventLog.gameStarted(gameSeed, numberOfPlayers);
+        turnCount = 0;
+        drawCount = 0;
+        eightCount = 0;
+        declarationCount = 0;
+
+        shuffleDeck(deck);
+        dealCards();
+
+        //If the top card of the draw pile is an 8, shuffle it back and draw another card to discard.
+        while (deck.peek().getRank() == Card.Rank.EIGHT) {
+            shuffleDeck(deck);
+        }
+
+        //Discard the top card of the draw pile, which sets the current suit, and the rest is the draw pile.
+        if (eventLog != null) eventLog.discardPileStarted(deck.peek());
+        Card firstCard = deck.pop();
+        state.startDiscardPile(firstCard.getOrdinal());
+        state.setDrawPile(deck);
+        if (isReshufflingDiscardPile) {
+            state.setReshuffling(true, random.nextLong());
+        }
+        for (GameObserver observer : observers) {
+            observer.gameStarted(firstCard);
+        }
+    }
+
+    /**
+     * Loops through all of the players and allows them to play their turn.
      */
-    private void userTurn(Player player) {
-        System.out.println("\nThe cards in your hand are: ");
-        for (Card card : player.getHand()) {
-            System.out.println(card.getRank() + " of " + card.getSuit());
+    private void playersPlayTurns() {
+
+        //The state ends the game on a win or tie.
+        do {
+            playNextSeat();
+        } while (nextSeatIndex != 0 && !state.isOver());
+    }
+
+    /**
+     * Lets the next player in turn order play their turn, and ends the round after the last player.
+     */
+    private void playNextSeat() {
+        Seat seat = seats.get(nextSeatIndex);
+        if (isNarrated) {
+            Card topCard = Card.fromOrdinal(state.getTopCard());
+            out.println("\nThe card on top of the discard pile is a " + topCard.getRank() + 
+                                    " of " + topCard.getSuit() + " and the declared suit to match is " + getCurrentSuit());
+        }
+        pause(1500);
+        playTurn(seat);
+        nextSeatIndex = nextSeatIndex + 1 == seats.size() ? 0 : nextSeatIndex + 1;
+        if (state.isOver()) {
+            return;
         }
+        if (nextSeatIndex == 0) {
+            pause(1500);
+            if (isNarrated) out.println("\n\n----------NEW TURN----------\n\n");
+        }
+    }
 
+    /**
+     * Plays a narrated game between bots without holding on to a thread while it waits between turns.
+     * Each turn is a task that the pacer runs once the pauses of the turn before it have passed, and
+     * that schedules the next turn in its place, so any number of these games can share the threads
+     * of one pacer. This method returns as soon as the first turn is scheduled.
+     *
+     * @param strategyNames The registered name of the strategy in each seat, in turn order.
+     * @param gameSeed The seed that determines the shuffles of the game.
+     * @param pacer The pacer that runs the turns.
+     * @param out The stream that the game is narrated on.
+     * @param onGameOver Given the id of the winning player, 0 for a tie, or FAILED_GAME if a turn threw,
+     *                   once the game is over.
+     */
+    public void playPacedBotGame(List<String> strategyNames, long gameSeed, TurnPacer pacer, PrintStream out,
+                                 IntConsumer onGameOver) {
+        PrintStream previousOut = this.out;
+        boolean wasNarrated = isNarrated;
+        TurnPacer previousPacer = gamePacer;
+        Runnable restoreSettings = () -> {
+            this.out = previousOut;
+            isNarrated = wasNarrated;
+            gamePacer = previousPacer;
+            isSteppingTurns = false;
+        };
+
+        this.out = out;
+        isNarrated = true;
+        gamePacer = pacer;
+        isSteppingTurns = true;
         try {
-            Thread.sleep(1500);
-        } catch (InterruptedException e) {
-            System.out.print("");
+            seatBots(strategyNames);
+            startNewGame(gameSeed);
+            pacer.schedule(0, () -> playPacedTurn(pacer, onGameOver, restoreSettings));
+        } catch (RuntimeException e) {
+            restoreSettings.run();
+            throw e;
         }
+    }
 
-        List<Card> playableCards = new ArrayList<>();
-        System.out.println("\nThe cards that you can play are: ");
-        for (Card card : player.getHand()) {
-            if (card.getRank() == discardPile.peek().getRank() || card.getSuit() == currentSuit
-                || card.getRank() == Card.Rank.EIGHT) {
-                playableCards.add(card);
-                System.out.println(card.getRank() + " of " + card.getSuit());
+    /**
+     * Plays one turn of a paced game, then schedules the next turn after the turn's pauses. Once the
+     * game is over, or a turn has thrown, the engine's settings from before the game are put back and
+     * onGameOver is called.
+     *
+     * @param pacer The pacer that runs the turns.
+     * @param onGameOver Given the id of the winning player, 0 for a tie, or FAILED_GAME if a turn threw.
+     * @param restoreSettings Puts back the settings that the engine had before the game.
+     */
+    private void playPacedTurn(TurnPacer pacer, IntConsumer onGameOver, Runnable restoreSettings) {
+        int result;
+        try {
+            pendingPauseMillis = 0;
+            playNextSeat();
+            if (!state.isOver()) {
+                pacer.schedule(pendingPauseMillis, () -> playPacedTurn(pacer, onGameOver, restoreSettings));
+                return;
             }
+            recordGameMetrics();
+            recordGameResult();
+            result = winnerId;
+        } catch (RuntimeException e) {
+            //The turn runs on the pacer's thread, where nobody would see the exception, so it is reported here.
+            System.err.println("A paced game was stopped by an error:");
+            e.printStackTrace();
+            result = FAILED_GAME;
         }
+        restoreSettings.run();
+        onGameOver.accept(result);
+    }
 
-        if (playableCards.size() == 0) {
-            System.out.println("NOTHING");
-            System.out.println("\nBecause you have no legally playable cards, you must draw a card.");
-            Card drawnCard = drawPile.peek();
-            player.receiveCard(drawPile.pop());
-            System.out.println("\nThe card that you've drawn is a " + drawnCard.getRank() + " of " + drawnCard.getSuit());
-            try {
-                Thread.sleep(1500);
-            } catch (InterruptedException e) {
-                System.out.print("");
+    /**
+     * Allows a player to play their turn. The player's choices are turned into a move, which the
+     * state applies.
+     * 
+     * @param seat The seat of the player playing the turn.
+     */
+    private void playTurn(Seat seat) {
+        PlayerStrategy player = seat.getStrategy();
+        int seatIndex = seat.getPlayerId() - 1;
+        if (player instanceof StateAwareStrategy) {
+            if (seatViews[seatIndex] == null) {
+                seatViews[seatIndex] = new SeatView(seatIndex);
             }
-            return;
+            ((StateAwareStrategy) player).observeState(seatViews[seatIndex]);
+        }
+        if (metrics != null || eventLog != null || resultStore != null) turnCount++;
+
+        //If the player should draw a card, draw. Else, play a card. The callbacks are only timed with metrics on.
+        long startTime = metrics == null ? 0 : System.nanoTime();
+        boolean shouldDrawCard = player.shouldDrawCard(Card.fromOrdinal(state.getTopCard()), getCurrentSuit());
+        if (metrics != null) {
+            metrics.recordShouldDrawCard(System.nanoTime() - startTime);
         }
-        
-        System.out.println("\nAs a reminder, the card on top of the discard pile is a " + discardPile.peek().getRank() + 
-                            " of " + discardPile.peek().getSuit() + " and the current suit to match is " + currentSuit);
-
-        Scanner scanner2 = new Scanner(System.in);
-        System.out.println("\nChoose which card that youd like to play -- do so by entering the card in this format:" +
-                            "\"RANK of SUIT\". For example, enter \"ACE of DIAMONDS\" or \"ace of diamonds\" or " +
-                            "\"seven of clubs\"");
-
-        String[] cardToPlay = scanner2.nextLine().toUpperCase().split(" ");
-        while(invalidCardInput(cardToPlay)) {
-            System.out.println("\nThe format which you entered does not match a valid card.");
-            System.out.println("\nChoose which card that youd like to play -- do so by entering the card in this format:" +
-                "\"RANK of SUIT\". For example, enter \"ACE of DIAMONDS\" or \"ace of diamonds\" or " +
-                "\"seven of clubs\"");
-            System.out.println("\nThe cards that you can play are: ");
-            for (Card card : player.getHand()) {
-                if (card.getRank() == discardPile.peek().getRank() || card.getSuit() == discardPile.peek().getSuit()) {
-                    playableCards.add(card);
-                    System.out.println(card.getRank() + " of " + card.getSuit());
+        if (shouldDrawCard) {
+            if (state.getDrawPileSize() == 0 && state.isReshuffling() && state.reshuffleDiscardPile()) {
+                if (eventLog != null) eventLog.discardPileReshuffled(turnCount);
+                for (GameObserver observer : observers) {
+                    observer.discardPileReshuffled();
                 }
+                if (isNarrated) out.println("The draw pile is out of cards, so the discard pile has been shuffled into it.");
             }
-            Scanner scanner3 = new Scanner(System.in);
-            cardToPlay = scanner3.nextLine().toUpperCase().split(" ");
-        }
-
-        for (Card card : playableCards) {
+            if (state.getDrawPileSize() == 0) {
+                state.apply(GameState.DRAW);
+                if (eventLog != null) eventLog.gameTied(turnCount);
+                if (isNarrated) out.println("The draw pile is out of cards. The game ends in a tie.");
+                return;
+            }
+            Card drawnCard = Card.fromOrdinal(state.peekDrawPile());
+            state.apply(GameState.DRAW);
+            if (metrics != null || resultStore != null) drawCount++;
+            if (eventLog != null) eventLog.cardDrawn(turnCount, seat.getPlayerId(), drawnCard);
+            for (GameObserver observer : observers) {
+                observer.cardDrawn(seat.getPlayerId());
+            }
+            player.receiveCard(drawnCard);
+            if (isNarrated && !seat.isUser()) out.println("Player " + seat.getPlayerId() + " has drawn a card.");
+            pause(1500);
 
-            if (card.getRank().name().toUpperCase().equals(cardToPlay[0]) 
-                && card.getSuit().name().toUpperCase().equals(cardToPlay[2])) {
+            
+        } else {
 
-                player.getHand().remove(card);
-                discardPile.push(card);
-                System.out.println("\nYou have played a " + card.getRank() + " of " + card.getSuit());
-                currentSuit = card.getSuit();
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    System.out.print("");
+            //Check that the played card is in the player's hand and may be played, then play it.
+            startTime = metrics == null ? 0 : System.nanoTime();
+            Card playedCard = player.playCard();
+            if (metrics != null) metrics.recordPlayCard(System.nanoTime() - startTime);
+            if (playedCard == null || (state.getPlayableCards() & (1L << playedCard.getOrdinal())) == 0) {
+                throw new IllegalStateException("Player " + seat.getPlayerId() + " played " + playedCard
+                                                + ", which is not a playable card in their hand");
+            }
+            if (eventLog != null) eventLog.cardPlayed(turnCount, seat.getPlayerId(), playedCard);
+            
+            if (isNarrated) {
+                if (seat.isUser()) {
+                    out.println("\nYou have played a " + playedCard.getRank() + " of " + playedCard.getSuit());
+                } else {
+                    out.println("Player " + seat.getPlayerId() + " has played a " + playedCard.getRank() + " of " + playedCard.getSuit());
                 }
+            }
+            pause(seat.isUser() ? 1000 : 1500);
 
-                //Check if a player has won. If the game is won, end the game.
-                checkWonGame(player);
-                if (!isGameOngoing) {
-                    return;
+            //If the player just played an 8 and has cards left, they get to declare the next suit.
+            boolean isLastCard = state.getHandSize(seatIndex) == 1;
+            Card.Suit nextSuit = playedCard.getSuit();
+            if (playedCard.getRank() == Card.Rank.EIGHT && (metrics != null || resultStore != null)) {
+                eightCount++;
+            }
+            if (playedCard.getRank() == Card.Rank.EIGHT && !isLastCard) {
+                startTime = metrics == null ? 0 : System.nanoTime();
+                nextSuit = player.declareSuit();
+                if (metrics != null) {
+                    metrics.recordDeclareSuit(System.nanoTime() - startTime);
+                    declarationCount++;
+                }
+                if (eventLog != null) eventLog.suitDeclared(turnCount, seat.getPlayerId(), nextSuit);
+            }
+            state.apply(GameState.play(playedCard.getOrdinal(), nextSuit.ordinal()));
+            for (GameObserver observer : observers) {
+                observer.cardPlayed(seat.getPlayerId(), playedCard);
+                if (playedCard.getRank() == Card.Rank.EIGHT && !isLastCard) {
+                    observer.suitDeclared(seat.getPlayerId(), nextSuit);
                 }
+            }
+
+            //Check if a player has won. If the game is won, end the game.
+            checkWonGame(seat);
+            if (state.isOver()) {
+                return;
+            }
 
-                if (card.getRank() == Card.Rank.EIGHT) {
-                    System.out.println("\nBecause you've played an eight, you can pick the next suit. " +
-                                        "Enter the suit that you'd like (Diamonds, Clubs, Spades, Hearts): ");
-                    currentSuit = Card.Suit.valueOf(scanner2.nextLine().toUpperCase()); 
-                    System.out.println("The new declared suit to match is " + currentSuit);
+            if (playedCard.getRank() == Card.Rank.EIGHT && isNarrated) {
+                if (seat.isUser()) {
+                    out.println("The new declared suit to match is " + nextSuit);
+                } else {
+                    out.println("\nBecause this player played an eight, they've declared the new suit to match to be " + nextSuit);
                 }
-                break;
             }
         }
     }
 
     /**
-     * Check if the given player has an empty hand.
+     * Gets the suit that the next card has to match.
      *
-     * @param player The player to be checked.
+     * @return The current suit.
      */
-    private void checkWonGame(Player player) {
-
-        //If a player wins, update his/her points accordingly.
-        if (player.getHand().size() == 0) {
-            isGameOngoing = false;
-            if (player.getPlayerId() != numberOfPlayers) {
-                System.out.println("Player " + player.getPlayerId() + " has won the game. Better luck next time");
-            } else {
-                System.out.println("You've succesfully discarded all of your cards and won the game!");
-            }
-        }
+    private Card.Suit getCurrentSuit() {
+        return Card.suitFromOrdinal(state.getCurrentSuit());
     }
 
     /**
-     * Checks if the user inputted card is valid.
-     * 
-     * @param input
-     * @return Whether or not the given card is valid.
+     * Check if the given player has won the game by emptying their hand.
+     *
+     * @param seat The seat of the player to be checked.
      */
-    private boolean invalidCardInput(String[] cardToPlay) {
-        if (cardToPlay.length != 3) {
-            return true;
-        }
+    private void checkWonGame(Seat seat) {
 
-        boolean invalidRankOrSuit = false;
-        for (Card.Rank rank : Card.Rank.values()) {
-            try {
-                invalidRankOrSuit = !(Card.Rank.valueOf(cardToPlay[0]) == rank);
-            } catch (IllegalArgumentException e) {
-                return true;
+        //If a player wins, update his/her points accordingly.
+        if (state.getWinner() == seat.getPlayerId() - 1) {
+            winnerId = seat.getPlayerId();
+            if (eventLog != null) eventLog.gameWon(turnCount, winnerId);
+            if (!isNarrated) {
+                return;
             }
-        }
-        for (Card.Suit suit : Card.Suit.values()) {
-            try {
-                invalidRankOrSuit = !(Card.Suit.valueOf(cardToPlay[2]) == suit);
-            } catch (IllegalArgumentException e) {
-                return true;
+            if (!seat.isUser()) {
+                out.println("Player " + seat.getPlayerId() + " has won the game. Better luck next time");
+            } else {
+                out.println("You've succesfully discarded all of your cards and won the game!");
             }
         }
-        return false;
     }
 
     /**
-     * Finds a player given an id.
+     * Finds a seat given a player id.
      *
      * @param id The id of the player to be located.
-     * @return The located player.
+     * @return The located player's seat.
      */
-    public Player getPlayerFromId(int id) {
-        for (Player player : players) {
-            if (player.getPlayerId() == id) {
-                return player;
+    public Seat getSeatFromId(int id) {
+        for (Seat seat : seats) {
+            if (seat.getPlayerId() == id) {
+                return seat;
             }
         }
         return null;
     }
 
     /**
-     * Allows players to join the match at the start.
+     * Allows players to join the match at the start. Every seat but the last is taken by a greedy bot,
+     * and the user takes the last seat.
      *
      * @param numberOfPlayers The number of players to play Crazy 8's.
+     * @param user The strategy through which the user plays.
      * @return The number of players.
      */
-    public int letPlayersJoinMatch(int numberOfPlayers) {
+    public int letPlayersJoinMatch(int numberOfPlayers, PlayerStrategy user) {
 
         //Initialize the amount of players given to the method and add them to a list of players.
-        int playerID;
-        List<Integer> opponentIds = new ArrayList<>();
-        System.out.println();
-        for (playerID = 1; playerID < numberOfPlayers; playerID++) {
-            opponentIds = new ArrayList<>();
-
-            for (int opponentID = 1; opponentID <= numberOfPlayers; opponentID++) {
-                if (opponentID != playerID) {
-                    opponentIds.add(opponentID);
-                }
-            }
-
-            Player player = new Player();
-            player.init(playerID, opponentIds);
-            players.add(player);
-            System.out.println("Player " + player.getPlayerId() + " has joined the game.");
+        this.numberOfPlayers = numberOfPlayers;
+        seats = new ArrayList<>();
+        observers = new ArrayList<>();
+        out.println();
+        for (int playerID = 1; playerID < numberOfPlayers; playerID++) {
+            seatPlayer(playerID, StrategyRegistry.create(StrategyRegistry.GREEDY), StrategyRegistry.GREEDY, false);
+            out.println("Player " + playerID + " has joined the game.");
         }
-        Player user = new Player();
-        user.init(playerID, opponentIds);
-        players.add(user);
-        System.out.println("You have joined the game!");
+        seatPlayer(numberOfPlayers, user, "user", true);
+        out.println("You have joined the game!");
 
         String lineSeparation = "------------------------------ \n";
-        System.out.println(lineSeparation);
+        out.println(lineSeparation);
         return numberOfPlayers;
     }
 
+    /**
+     * Seats a new instance of the named strategy in every seat, in turn order.
+     *
+     * @param strategyNames The registered name of the strategy in each seat.
+     */
+    private void seatBots(List<String> strategyNames) {
+        List<PlayerStrategy> strategies = new ArrayList<>();
+        for (String strategyName : strategyNames) {
+            strategies.add(StrategyRegistry.create(strategyName));
+        }
+        seatStrategies(strategies, strategyNames);
+    }
+
+    /**
+     * Seats the given bots, one per seat.
+     *
+     * @param strategies The strategy in each seat, in turn order.
+     * @param strategyNames The name of the strategy in each seat, in turn order.
+     */
+    private void seatStrategies(List<PlayerStrategy> strategies, List<String> strategyNames) {
+        int numberOfPlayers = strategies.size();
+        if (numberOfPlayers < MINIMUM_PLAYERS || numberOfPlayers > MAXIMUM_PLAYERS) {
+            throw new IllegalArgumentException("A game needs between " + MINIMUM_PLAYERS + " and "
+                                                + MAXIMUM_PLAYERS + " players, got " + numberOfPlayers);
+        }
+        this.numberOfPlayers = numberOfPlayers;
+        seats = new ArrayList<>();
+        observers = new ArrayList<>();
+        for (int playerID = 1; playerID <= numberOfPlayers; playerID++) {
+            seatPlayer(playerID, strategies.get(playerID - 1), strategyNames.get(playerID - 1), false);
+        }
+    }
+
+    /**
+     * Seats a player and tells them their id and the ids of their opponents.
+     *
+     * @param playerID The id of the player, which is also their position in turn order.
+     * @param strategy The strategy that plays from the seat.
+     * @param strategyName The name of the strategy.
+     * @param isUser Whether or not a human plays from the seat.
+     */
+    private void seatPlayer(int playerID, PlayerStrategy strategy, String strategyName, boolean isUser) {
+        List<Integer> opponentIds = new ArrayList<>();
+        for (int opponentID = 1; opponentID <= numberOfPlayers; opponentID++) {
+            if (opponentID != playerID) {
+                opponentIds.add(opponentID);
+            }
+        }
+        strategy.init(playerID, opponentIds);
+        seats.add(new Seat(playerID, strategy, strategyName, isUser));
+        if (strategy instanceof GameObserver) {
+            observers.add((GameObserver) strategy);
+        }
+    }
+
     /**
      * Deal each player 5 cards.
      */
     private void dealCards() {
-        for (Player player : players) {
+        for (Seat seat : seats) {
 
-            List<Card> hand = new ArrayList<>();
+            List<Card> hand = seat.getDealtCards();
+            hand.clear();
+            long handMask = 0;
             for (int i = 0; i < STARTING_HAND_CARDS_NUMBER; i++) {
-                hand.add(deck.pop());
+                Card card = deck.pop();
+                if (eventLog != null) eventLog.cardDealt(seat.getPlayerId(), card);
+                hand.add(card);
+                handMask |= 1L << card.getOrdinal();
             }
-            player.receiveInitialCards(hand);
+            state.setHand(seat.getPlayerId() - 1, handMask);
+            seat.getStrategy().receiveInitialCards(hand);
         }
     }
 
@@ -370,9 +993,28 @@ public class GameEngine {
      * @param deck The deck to be shuffled.
      * @return The shuffled deck.
      */
-    public Stack<Card> shuffleDeck(Stack<Card> deck) {
-        Collections.shuffle(deck);
+    public CardStack shuffleDeck(CardStack deck) {
+        deck.shuffle(random);
         return deck;
     }
 
+    /**
+     * Pauses between actions so that a human can follow along. Simulated and replayed games pause on
+     * the ZeroDelayPacer, which returns at once, and a paced bot game adds the pause to the delay
+     * before its next turn instead of waiting.
+     *
+     * @param millis The number of milliseconds to pause for.
+     */
+    private void pause(long millis) {
+        if (isSteppingTurns) {
+            pendingPauseMillis += millis;
+            return;
+        }
+        try {
+            gamePacer.pause(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
 }
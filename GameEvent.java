@@ -0,0 +1,102 @@
+/**
+ * A single thing that happened in a game, as written to and read back from a GameEventLog.
+ *
+ * Only the fields that matter for the event's type are set: a deal, draw or play has a card, a
+ * declaration has a suit, and the start of a game has its seed and number of players. Every event
+ * that happens during a turn also has the index of the turn, counted from 1 in each game.
+ */
+public class GameEvent {
+
+    /**
+     * The kinds of events. The ordinals are written to the log, so new types go at the end.
+     */
+    public enum Type {
+        GAME_START, DEAL, DISCARD_START, DRAW, PLAY, DECLARE_SUIT, RESHUFFLE, WIN, TIE
+    }
+
+    /**
+     * Class variables.
+     */
+    private final Type type;
+    private final int playerId;
+    private final int turn;
+    private final Card card;
+    private final Card.Suit suit;
+    private final long gameSeed;
+    private final int numberOfPlayers;
+
+    public GameEvent(Type type, int playerId, int turn, Card card, Card.Suit suit, long gameSeed, int numberOfPlayers) {
+        this.type = type;
+        this.playerId = playerId;
+        this.turn = turn;
+        this.card = card;
+        this.suit = suit;
+        this.gameSeed = gameSeed;
+        this.numberOfPlayers = numberOfPlayers;
+    }
+
+    /**
+     * Getters.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the player the event happened to.
+     *
+     * @return The player's id, or 0 for events that do not belong to a player
+     */
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public Card getCard() {
+        return card;
+    }
+
+    public Card.Suit getSuit() {
+        return suit;
+    }
+
+    public long getGameSeed() {
+        return gameSeed;
+    }
+
+    public int getNumberOfPlayers() {
+        return numberOfPlayers;
+    }
+
+    /**
+     * Describes the event in the words the game uses when it narrates.
+     *
+     * @return The description of the event
+     */
+    @Override
+    public String toString() {
+        switch (type) {
+            case GAME_START:
+                return "A new game has begun between " + numberOfPlayers + " players, with seed " + gameSeed + ".";
+            case DEAL:
+                return "Player " + playerId + " was dealt a " + card + ".";
+            case DISCARD_START:
+                return "The first card of the discard pile is a " + card + ".";
+            case DRAW:
+                return "Turn " + turn + ": player " + playerId + " has drawn a " + card + ".";
+            case PLAY:
+                return "Turn " + turn + ": player " + playerId + " has played a " + card + ".";
+            case DECLARE_SUIT:
+                return "Turn " + turn + ": player " + playerId + " has declared the new suit to match to be " + suit + ".";
+            case RESHUFFLE:
+                return "Turn " + turn + ": the discard pile has been shuffled into the draw pile.";
+            case WIN:
+                return "Turn " + turn + ": player " + playerId + " has won the game.";
+            default:
+                return "Turn " + turn + ": the draw pile is out of cards. The game ends in a tie.";
+        }
+    }
+}
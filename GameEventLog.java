@@ -0,0 +1,324 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records the events of a game engine's games to a compact binary log, without making the engine
+ * wait for the output.
+ *
+ * The engine packs each event into a long and puts it in a ring buffer, which allocates nothing and
+ * takes a few nanoseconds. A background thread drains the ring buffer and writes the events out. The
+ * engine only waits when it gets a whole ring buffer ahead of the writer.
+ *
+ * In the log, every event starts with a byte holding its type in the high four bits and its player
+ * id in the low four bits, or the number of players for the start of a game. A deal, draw, play or
+ * first discard is followed by one byte for the card's ordinal, a declaration by one byte for the
+ * suit's ordinal, and the start of a game by the game's seed as eight bytes. Every event that happens
+ * during a turn also has the index of the turn as a varint, right after the first byte.
+ * GameEventReader reads the log back.
+ *
+ * A log has one writing thread, so an engine's log must not be shared with other engines.
+ */
+public class GameEventLog implements AutoCloseable {
+
+    /**
+     * Constants for the ring buffer. An event is packed into a long as its type, player id, card or
+     * suit and turn, and the start of a game takes a second long for the seed.
+     */
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int PLAYER_SHIFT = 4;
+    private static final int VALUE_SHIFT = 8;
+    private static final int TURN_SHIFT = 16;
+    private static final long IDLE_NANOS = 100_000;
+    private static final int BATCH_BYTES = 1 << 16;
+    private static final int LONGEST_EVENT_BYTES = 16;
+
+    /**
+     * Class variables. The engine moves head forward as it adds events, and the writer moves tail
+     * forward as it writes them.
+     */
+    private final long[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final OutputStream output;
+    private final Thread writer;
+    private volatile boolean isClosed;
+    private volatile Throwable writeError;
+
+    /**
+     * Creates a log that writes to the given stream.
+     *
+     * @param output The stream that the log is written to, which the log closes when it is closed
+     */
+    public GameEventLog(OutputStream output) {
+        this(output, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a log that writes to the given stream.
+     *
+     * @param output The stream that the log is written to, which the log closes when it is closed
+     * @param capacity The number of longs in the ring buffer, which must be a power of two
+     */
+    public GameEventLog(OutputStream output, int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity of an event log must be a power of two, got " + capacity);
+        }
+        this.ring = new long[capacity];
+        this.mask = capacity - 1;
+        this.output = new BufferedOutputStream(output, 1 << 16);
+        this.writer = new Thread(this::drain, "game-event-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Records the start of a game.
+     *
+     * @param gameSeed The seed of the game
+     * @param numberOfPlayers The number of players at the table
+     */
+    public void gameStarted(long gameSeed, int numberOfPlayers) {
+        put(pack(GameEvent.Type.GAME_START, numberOfPlayers, 0, 0), gameSeed);
+    }
+
+    public void cardDealt(int playerId, Card card) {
+        put(pack(GameEvent.Type.DEAL, playerId, card.getOrdinal(), 0));
+    }
+
+    public void discardPileStarted(Card card) {
+        put(pack(GameEvent.Type.DISCARD_START, 0, card.getOrdinal(), 0));
+    }
+
+    public void cardDrawn(int turn, int playerId, Card card) {
+        put(pack(GameEvent.Type.DRAW, playerId, card.getOrdinal(), turn));
+    }
+
+    public void cardPlayed(int turn, int playerId, Card card) {
+        put(pack(GameEvent.Type.PLAY, playerId, card.getOrdinal(), turn));
+    }
+
+    public void suitDeclared(int turn, int playerId, Card.Suit suit) {
+        put(pack(GameEvent.Type.DECLARE_SUIT, playerId, suit.ordinal(), turn));
+    }
+
+    public void discardPileReshuffled(int turn) {
+        put(pack(GameEvent.Type.RESHUFFLE, 0, 0, turn));
+    }
+
+    public void gameWon(int turn, int playerId) {
+        put(pack(GameEvent.Type.WIN, playerId, 0, turn));
+    }
+
+    public void gameTied(int turn) {
+        put(pack(GameEvent.Type.TIE, 0, 0, turn));
+    }
+
+    /**
+     * Waits for the writer to write out every event recorded so far, then flushes the stream.
+     */
+    public void flush() {
+        long target = head.get();
+        while (tail.get() < target && writer.isAlive()) {
+            LockSupport.parkNanos(IDLE_NANOS);
+        }
+        synchronized (output) {
+            try {
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        checkWriteError();
+    }
+
+    /**
+     * Writes out every event recorded so far, stops the writer and closes the stream.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            output.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        checkWriteError();
+    }
+
+    /**
+     * Packs an event into a long.
+     *
+     * @param type The type of the event
+     * @param player The player id, or the number of players for the start of a game
+     * @param value The card or suit ordinal
+     * @param turn The index of the turn
+     * @return The packed event
+     */
+    private static long pack(GameEvent.Type type, int player, int value, int turn) {
+        return type.ordinal() | (long) player << PLAYER_SHIFT | (long) value << VALUE_SHIFT | (long) turn << TURN_SHIFT;
+    }
+
+    /**
+     * Puts one long in the ring buffer, waiting for room if the writer has fallen a whole buffer
+     * behind.
+     *
+     * @param event The packed event
+     */
+    private void put(long event) {
+        long position = head.get();
+        waitForRoom(position + 1);
+        ring[(int) position & mask] = event;
+        head.lazySet(position + 1);
+    }
+
+    /**
+     * Puts two longs in the ring buffer together, so that the writer never sees one without the other.
+     *
+     * @param event The packed event
+     * @param extra The long that follows the event
+     */
+    private void put(long event, long extra) {
+        long position = head.get();
+        waitForRoom(position + 2);
+        ring[(int) position & mask] = event;
+        ring[(int) (position + 1) & mask] = extra;
+        head.lazySet(position + 2);
+    }
+
+    /**
+     * Waits until the ring buffer has room up to the given position.
+     *
+     * @param end The position after the last long to be put
+     */
+    private void waitForRoom(long end) {
+        if (isClosed) {
+            throw new IllegalStateException("The event log is closed");
+        }
+        while (end - tail.get() > ring.length) {
+            checkWriteError();
+            if (!writer.isAlive()) {
+                throw new IllegalStateException("The event log's writer has stopped");
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * The writer thread's loop: writes out whatever the engine has put in the ring buffer, and sleeps
+     * for a moment when there is nothing to write. Events are encoded into a batch of bytes of the
+     * writer's own, which goes to the stream in one write, rather than each event taking its own
+     * synchronized write.
+     */
+    private void drain() {
+        byte[] buffer = new byte[BATCH_BYTES];
+        try {
+            while (true) {
+                long available = head.get();
+                long position = tail.get();
+                if (position == available) {
+                    if (isClosed) {
+                        break;
+                    }
+                    LockSupport.parkNanos(IDLE_NANOS);
+                    continue;
+                }
+                int length = 0;
+                synchronized (output) {
+                    while (position < available) {
+                        long event = ring[(int) position & mask];
+                        int type = (int) event & 0xF;
+                        if (type == GameEvent.Type.GAME_START.ordinal()) {
+                            long gameSeed = ring[(int) (position + 1) & mask];
+                            length = encodeGameStart(event, gameSeed, buffer, length);
+                            position += 2;
+                        } else {
+                            length = encode(event, buffer, length);
+                            position++;
+                        }
+                        if (length > buffer.length - LONGEST_EVENT_BYTES) {
+                            output.write(buffer, 0, length);
+                            length = 0;
+                        }
+                    }
+                    output.write(buffer, 0, length);
+                }
+                tail.lazySet(position);
+            }
+            synchronized (output) {
+                output.flush();
+            }
+        } catch (Throwable e) {
+            //Anything that stops the writer is kept, so that the engine hears of it instead of losing events.
+            writeError = e;
+        }
+    }
+
+    /**
+     * Encodes the start of a game as its first byte followed by the seed.
+     *
+     * @param event The packed event
+     * @param gameSeed The seed of the game
+     * @param buffer The buffer that receives the bytes
+     * @param offset The index in the buffer of the first byte
+     * @return The index in the buffer after the last byte written
+     */
+    private static int encodeGameStart(long event, long gameSeed, byte[] buffer, int offset) {
+        buffer[offset] = (byte) (GameEvent.Type.GAME_START.ordinal() << 4 | (int) (event >>> PLAYER_SHIFT & 0xF));
+        for (int i = 0; i < Long.BYTES; i++) {
+            buffer[offset + 1 + i] = (byte) (gameSeed >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+        }
+        return offset + 1 + Long.BYTES;
+    }
+
+    /**
+     * Encodes any event but the start of a game.
+     *
+     * @param event The packed event
+     * @param buffer The buffer that receives the bytes
+     * @param offset The index in the buffer of the first byte
+     * @return The index in the buffer after the last byte written
+     */
+    private static int encode(long event, byte[] buffer, int offset) {
+        int type = (int) event & 0xF;
+        buffer[offset] = (byte) (type << 4 | (int) (event >>> PLAYER_SHIFT & 0xF));
+        int length = offset + 1;
+        if (type != GameEvent.Type.DEAL.ordinal() && type != GameEvent.Type.DISCARD_START.ordinal()) {
+            for (long turn = event >>> TURN_SHIFT; ; turn >>>= 7) {
+                if (turn < 0x80) {
+                    buffer[length++] = (byte) turn;
+                    break;
+                }
+                buffer[length++] = (byte) (turn & 0x7F | 0x80);
+            }
+        }
+        if (GameEventReader.hasValue(type)) {
+            buffer[length++] = (byte) (event >>> VALUE_SHIFT);
+        }
+        return length;
+    }
+
+    /**
+     * Rethrows an error that the writer ran into, wrapping an IOException in an UncheckedIOException
+     * and anything else in an IllegalStateException.
+     */
+    private void checkWriteError() {
+        Throwable error = writeError;
+        if (error instanceof IOException) {
+            throw new UncheckedIOException("The event log could not be written", (IOException) error);
+        }
+        if (error != null) {
+            throw new IllegalStateException("The event log's writer failed", error);
+        }
+    }
+}
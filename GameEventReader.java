@@ -0,0 +1,102 @@
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads back the events written by a GameEventLog, one at a time and in the order they happened.
+ */
+public class GameEventReader implements AutoCloseable {
+
+    /**
+     * Class variables.
+     */
+    private final InputStream input;
+
+    /**
+     * Creates a reader for the given log.
+     *
+     * @param input The stream the log is read from, which the reader closes when it is closed
+     */
+    public GameEventReader(InputStream input) {
+        this.input = new BufferedInputStream(input, 1 << 16);
+    }
+
+    /**
+     * Whether an event of the given type is followed by a card or suit in the log.
+     *
+     * @param type The ordinal of the event's type
+     * @return True for deals, draws, plays and declarations
+     */
+    static boolean hasValue(int type) {
+        return type == GameEvent.Type.DEAL.ordinal() || type == GameEvent.Type.DISCARD_START.ordinal()
+            || type == GameEvent.Type.DRAW.ordinal() || type == GameEvent.Type.PLAY.ordinal()
+            || type == GameEvent.Type.DECLARE_SUIT.ordinal();
+    }
+
+    /**
+     * Reads the next event.
+     *
+     * @return The event, or null at the end of the log
+     * @throws IOException If the log cannot be read or ends in the middle of an event
+     */
+    public GameEvent next() throws IOException {
+        int first = input.read();
+        if (first < 0) {
+            return null;
+        }
+        int typeOrdinal = first >>> 4;
+        if (typeOrdinal >= GameEvent.Type.values().length) {
+            throw new IOException("Unknown event type " + typeOrdinal + " in the event log");
+        }
+        GameEvent.Type type = GameEvent.Type.values()[typeOrdinal];
+        int player = first & 0xF;
+
+        if (type == GameEvent.Type.GAME_START) {
+            long gameSeed = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                gameSeed = gameSeed << Byte.SIZE | readByte();
+            }
+            return new GameEvent(type, 0, 0, null, null, gameSeed, player);
+        }
+
+        int turn = 0;
+        if (type != GameEvent.Type.DEAL && type != GameEvent.Type.DISCARD_START) {
+            for (int shift = 0; ; shift += 7) {
+                int b = readByte();
+                turn |= (b & 0x7F) << shift;
+                if (b < 0x80) {
+                    break;
+                }
+            }
+        }
+
+        Card card = null;
+        Card.Suit suit = null;
+        if (type == GameEvent.Type.DECLARE_SUIT) {
+            suit = Card.suitFromOrdinal(readByte());
+        } else if (hasValue(typeOrdinal)) {
+            card = Card.fromOrdinal(readByte());
+        }
+        return new GameEvent(type, player, turn, card, suit, 0, 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * Reads a byte that has to be there.
+     *
+     * @return The byte, from 0 to 255
+     * @throws IOException If the log ends
+     */
+    private int readByte() throws IOException {
+        int b = input.read();
+        if (b < 0) {
+            throw new EOFException("The event log ends in the middle of an event");
+        }
+        return b;
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Collects statistics about the games played by one or more game engines: how long each game lasted,
+ * what happened in it, and how long the strategies took to answer each callback.
+ *
+ * Every statistic is a StripedHistogram, so one GameMetrics can be shared by engines playing on many
+ * threads at once. An engine with no metrics set skips the clock reads entirely.
+ */
+public class GameMetrics {
+
+    /**
+     * Class variables. The callback times are in nanoseconds.
+     */
+    private final StripedHistogram turnsPerGame = new StripedHistogram();
+    private final StripedHistogram drawsPerGame = new StripedHistogram();
+    private final StripedHistogram eightsPerGame = new StripedHistogram();
+    private final StripedHistogram declarationsPerGame = new StripedHistogram();
+    private final StripedHistogram shouldDrawCardNanos = new StripedHistogram();
+    private final StripedHistogram playCardNanos = new StripedHistogram();
+    private final StripedHistogram declareSuitNanos = new StripedHistogram();
+
+    /**
+     * Records the totals of a finished game.
+     *
+     * @param turns The number of turns played
+     * @param draws The number of cards drawn
+     * @param eights The number of eights played
+     * @param declarations The number of suits declared after an eight
+     */
+    public void recordGame(int turns, int draws, int eights, int declarations) {
+        turnsPerGame.record(turns);
+        drawsPerGame.record(draws);
+        eightsPerGame.record(eights);
+        declarationsPerGame.record(declarations);
+    }
+
+    public void recordShouldDrawCard(long nanos) {
+        shouldDrawCardNanos.record(nanos);
+    }
+
+    public void recordPlayCard(long nanos) {
+        playCardNanos.record(nanos);
+    }
+
+    public void recordDeclareSuit(long nanos) {
+        declareSuitNanos.record(nanos);
+    }
+
+    /**
+     * Adds every statistic recorded by another set of metrics to this one.
+     *
+     * @param other The metrics to be added
+     */
+    public void merge(GameMetrics other) {
+        turnsPerGame.merge(other.turnsPerGame);
+        drawsPerGame.merge(other.drawsPerGame);
+        eightsPerGame.merge(other.eightsPerGame);
+        declarationsPerGame.merge(other.declarationsPerGame);
+        shouldDrawCardNanos.merge(other.shouldDrawCardNanos);
+        playCardNanos.merge(other.playCardNanos);
+        declareSuitNanos.merge(other.declareSuitNanos);
+    }
+
+    /**
+     * Forgets every recorded statistic.
+     */
+    public void reset() {
+        turnsPerGame.reset();
+        drawsPerGame.reset();
+        eightsPerGame.reset();
+        declarationsPerGame.reset();
+        shouldDrawCardNanos.reset();
+        playCardNanos.reset();
+        declareSuitNanos.reset();
+    }
+
+    /**
+     * Getters.
+     */
+    public StripedHistogram getTurnsPerGame() {
+        return turnsPerGame;
+    }
+
+    public StripedHistogram getDrawsPerGame() {
+        return drawsPerGame;
+    }
+
+    public StripedHistogram getEightsPerGame() {
+        return eightsPerGame;
+    }
+
+    public StripedHistogram getDeclarationsPerGame() {
+        return declarationsPerGame;
+    }
+
+    public StripedHistogram getShouldDrawCardNanos() {
+        return shouldDrawCardNanos;
+    }
+
+    public StripedHistogram getPlayCardNanos() {
+        return playCardNanos;
+    }
+
+    public StripedHistogram getDeclareSuitNanos() {
+        return declareSuitNanos;
+    }
+
+    /**
+     * Lists every statistic, one per line.
+     *
+     * @return The summary of each histogram
+     */
+    @Override
+    public String toString() {
+        return "Turns per game: " + turnsPerGame
+            + "\nDraws per game: " + drawsPerGame
+            + "\nEights per game: " + eightsPerGame
+            + "\nDeclarations per game: " + declarationsPerGame
+            + "\nshouldDrawCard() ns: " + shouldDrawCardNanos
+            + "\nplayCard() ns: " + playCardNanos
+            + "\ndeclareSuit() ns: " + declareSuitNanos;
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Receives the public events of a game: everything that every player at the table sees happen. A
+ * strategy that implements this interface is told about the events of every player, itself included,
+ * right after each event happens.
+ *
+ * Every method does nothing by default, so an observer only overrides the events it cares about.
+ */
+public interface GameObserver {
+
+    /**
+     * Called once the cards have been dealt and the first card of the discard pile is turned over.
+     *
+     * @param topPileCard The first card of the discard pile
+     */
+    default void gameStarted(Card topPileCard) {
+    }
+
+    /**
+     * Called when a player has played a card on the discard pile.
+     *
+     * @param playerId The id of the player
+     * @param card The card played
+     */
+    default void cardPlayed(int playerId, Card card) {
+    }
+
+    /**
+     * Called when a player has drawn a card because they had nothing to play. Which card they drew is
+     * only known to them.
+     *
+     * @param playerId The id of the player
+     */
+    default void cardDrawn(int playerId) {
+    }
+
+    /**
+     * Called when a player who played an eight has declared the suit to match.
+     *
+     * @param playerId The id of the player
+     * @param suit The declared suit
+     */
+    default void suitDeclared(int playerId, Card.Suit suit) {
+    }
+
+    /**
+     * Called when every card of the discard pile but the top card has been shuffled back into the
+     * draw pile.
+     */
+    default void discardPileReshuffled() {
+    }
+}
@@ -0,0 +1,229 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregates the games in a GameResultStore: how often each strategy and each seat won, how often the
+ * games tied, and how the turns, draws and eights per game were spread.
+ *
+ * A query maps one block of the store at a time and reads its columns in place, touching only the
+ * columns it needs, so the seeds are never read. The distributions are exact counts of every value a
+ * column can hold, which makes a scan allocate nothing per record. Several stores can be added to one
+ * query, even if they number their strategies differently.
+ */
+public class GameResultQuery {
+
+    /**
+     * Class variables. The strategy counts are by strategy index, and the seat counts by seat.
+     */
+    private final int numberOfPlayers;
+    private final List<String> strategyNames = new ArrayList<>();
+    private final int[] strategyMap = new int[GameResultStore.NO_STRATEGY + 1];
+    private long games;
+    private long ties;
+    private final long[] strategyGames = new long[GameResultStore.NO_STRATEGY];
+    private final long[] strategyWins = new long[GameResultStore.NO_STRATEGY];
+    private final long[] seatGames = new long[GameResultStore.MAXIMUM_SEATS];
+    private final long[] seatWins = new long[GameResultStore.MAXIMUM_SEATS];
+    private final long[] turnCounts = new long[Character.MAX_VALUE + 1];
+    private final long[] drawCounts = new long[Character.MAX_VALUE + 1];
+    private final long[] eightCounts = new long[0xFF + 1];
+
+    /**
+     * Creates a query over every game.
+     */
+    public GameResultQuery() {
+        this(0);
+    }
+
+    /**
+     * Creates a query over the games with the given number of players.
+     *
+     * @param numberOfPlayers The number of players of the games to count, or 0 for every game
+     */
+    public GameResultQuery(int numberOfPlayers) {
+        this.numberOfPlayers = numberOfPlayers;
+    }
+
+    /**
+     * Getters.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    public long getTies() {
+        return ties;
+    }
+
+    /**
+     * Gets the fraction of its games that a strategy won, counting a game once for every seat the
+     * strategy played in.
+     *
+     * @param strategyName The name of the strategy
+     * @return The win rate, or 0 if the strategy played no counted games
+     */
+    public double getWinRate(String strategyName) {
+        int index = strategyNames.indexOf(strategyName);
+        return index < 0 || strategyGames[index] == 0 ? 0 : (double) strategyWins[index] / strategyGames[index];
+    }
+
+    /**
+     * Gets the fraction of the games in which a seat was filled that its player won.
+     *
+     * @param playerId The id of the player in the seat
+     * @return The win rate, or 0 if no counted game filled the seat
+     */
+    public double getSeatWinRate(int playerId) {
+        int seat = playerId - 1;
+        return seatGames[seat] == 0 ? 0 : (double) seatWins[seat] / seatGames[seat];
+    }
+
+    /**
+     * Adds the games of a store to the counts.
+     *
+     * @param file The file of the store
+     * @throws IOException If the file cannot be read, or is not a store
+     */
+    public void scan(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < GameResultStore.HEADER_SIZE) {
+                throw new IOException(file + " is not a game result store");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, GameResultStore.HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+
+            //Map the store's strategy indexes to this query's, which may differ between stores.
+            List<String> fileStrategyNames = GameResultStore.readStrategyNames(header, file);
+            for (int strategy = 0; strategy < fileStrategyNames.size(); strategy++) {
+                if (!strategyNames.contains(fileStrategyNames.get(strategy))) {
+                    if (strategyNames.size() == GameResultStore.NO_STRATEGY) {
+                        throw new IOException("The stores scanned hold more than " + GameResultStore.NO_STRATEGY
+                                              + " strategies between them");
+                    }
+                    strategyNames.add(fileStrategyNames.get(strategy));
+                }
+                strategyMap[strategy] = strategyNames.indexOf(fileStrategyNames.get(strategy));
+            }
+
+            long recordCount = GameResultStore.readRecordCount(header);
+            for (long blockNumber = 0; blockNumber * GameResultStore.RECORDS_PER_BLOCK < recordCount; blockNumber++) {
+                long blockOffset = GameResultStore.blockOffset(blockNumber);
+                if (channel.size() < blockOffset + GameResultStore.BLOCK_SIZE) {
+                    throw new IOException(file + " is cut off in block " + blockNumber);
+                }
+                MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, blockOffset, GameResultStore.BLOCK_SIZE);
+                block.order(ByteOrder.LITTLE_ENDIAN);
+                int records = (int) Math.min(GameResultStore.RECORDS_PER_BLOCK,
+                                             recordCount - blockNumber * GameResultStore.RECORDS_PER_BLOCK);
+                scanBlock(block, records);
+            }
+        }
+    }
+
+    /**
+     * Adds the games of one block to the counts.
+     *
+     * @param block The block
+     * @param records The number of records in the block
+     */
+    private void scanBlock(MappedByteBuffer block, int records) {
+        for (int slot = 0; slot < records; slot++) {
+            int players = block.get(GameResultStore.PLAYERS_COLUMN + slot);
+            if (numberOfPlayers != 0 && players != numberOfPlayers) {
+                continue;
+            }
+            int winnerId = block.get(GameResultStore.WINNER_COLUMN + slot);
+            games++;
+            if (winnerId == 0) {
+                ties++;
+            }
+            turnCounts[block.getChar(GameResultStore.TURNS_COLUMN + Character.BYTES * slot)]++;
+            drawCounts[block.getChar(GameResultStore.DRAWS_COLUMN + Character.BYTES * slot)]++;
+            eightCounts[block.get(GameResultStore.EIGHTS_COLUMN + slot) & 0xFF]++;
+            for (int seat = 0; seat < players; seat++) {
+                int strategy = strategyMap[block.get(GameResultStore.STRATEGY_COLUMN
+                                                     + seat * GameResultStore.RECORDS_PER_BLOCK + slot) & 0xFF];
+                boolean isWin = winnerId == seat + 1;
+                strategyGames[strategy]++;
+                seatGames[seat]++;
+                if (isWin) {
+                    strategyWins[strategy]++;
+                    seatWins[seat]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lists the counted games, the win rate of every strategy and seat, and the spread of the turns,
+     * draws and eights per game.
+     *
+     * @return The report, one statistic per line
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("Games: ").append(games);
+        if (numberOfPlayers != 0) {
+            report.append(" with ").append(numberOfPlayers).append(" players");
+        }
+        report.append('\n');
+        for (int strategy = 0; strategy < strategyNames.size(); strategy++) {
+            if (strategyGames[strategy] != 0) {
+                report.append(String.format("%s wins: %d of %d seats (%.2f%%)%n", strategyNames.get(strategy),
+                                            strategyWins[strategy], strategyGames[strategy],
+                                            100.0 * strategyWins[strategy] / strategyGames[strategy]));
+            }
+        }
+        for (int seat = 0; seat < GameResultStore.MAXIMUM_SEATS; seat++) {
+            if (seatGames[seat] != 0) {
+                report.append(String.format("Player %d wins: %d (%.2f%%)%n", seat + 1, seatWins[seat],
+                                            100 * getSeatWinRate(seat + 1)));
+            }
+        }
+        report.append(String.format("Ties: %d (%.2f%%)%n", ties, games == 0 ? 0 : 100.0 * ties / games));
+        report.append("Turns per game: ").append(summarize(turnCounts))
+              .append("\nDraws per game: ").append(summarize(drawCounts))
+              .append("\nEights per game: ").append(summarize(eightCounts));
+        return report.toString();
+    }
+
+    /**
+     * Summarizes a distribution the way StripedHistogram does.
+     *
+     * @param counts The number of games with each value
+     * @return The count, mean, median, 90th and 99th percentiles, and maximum
+     */
+    private static String summarize(long[] counts) {
+        long count = 0;
+        long total = 0;
+        int max = 0;
+        for (int value = 0; value < counts.length; value++) {
+            count += counts[value];
+            total += counts[value] * value;
+            if (counts[value] != 0) {
+                max = value;
+            }
+        }
+        return String.format("count=%d mean=%.1f p50=%d p90=%d p99=%d max=%d", count, count == 0 ? 0.0 : (double) total / count,
+                             percentile(counts, count, 50), percentile(counts, count, 90), percentile(counts, count, 99), max);
+    }
+
+    private static int percentile(long[] counts, long count, double percentile) {
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int value = 0; value < counts.length; value++) {
+            seen += counts[value];
+            if (seen >= rank && seen > 0) {
+                return value;
+            }
+        }
+        return 0;
+    }
+}
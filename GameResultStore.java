@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An append-only file of game results with one record per game, which is written through memory
+ * mapped buffers. GameResultQuery reads it back.
+ *
+ * The records are stored by column rather than one after another. The file starts with a header of
+ * HEADER_SIZE bytes, followed by blocks of RECORDS_PER_BLOCK records. Within a block, every column is
+ * one contiguous array: the seed of each game as a long, then the number of players, the winner's id
+ * (0 for a tie), the turns, draws and eights of each game, and the strategy in each of the six seats.
+ * A query that only needs the winners only reads the winners' bytes, straight from the page cache.
+ *
+ * The header holds the number of records and the names of the strategies, which the strategy columns
+ * refer to by index. The count is updated after every record, so a reader only ever sees whole
+ * records. Turn and draw counts above 65535 and eight counts above 255 are stored as the largest value
+ * that fits. Every number is little endian.
+ *
+ * A store can be shared by engines on different threads, since appending is synchronized. Opening an
+ * existing store appends to it.
+ */
+public class GameResultStore implements AutoCloseable {
+
+    /**
+     * Constants for the layout of the header.
+     */
+    static final int MAGIC = 0x52473843;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 4096;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int RECORDS_PER_BLOCK_OFFSET = 8;
+    private static final int RECORD_COUNT_OFFSET = 16;
+    private static final int STRATEGY_COUNT_OFFSET = 24;
+    private static final int NAMES_OFFSET = 28;
+
+    /**
+     * Constants for the layout of a block. Each column starts at its offset within the block, and the
+     * strategy column of each seat is RECORDS_PER_BLOCK bytes after the one before it.
+     */
+    static final int RECORDS_PER_BLOCK = 1 << 18;
+    static final int MAXIMUM_SEATS = 6;
+    static final int SEED_COLUMN = 0;
+    static final int PLAYERS_COLUMN = SEED_COLUMN + Long.BYTES * RECORDS_PER_BLOCK;
+    static final int WINNER_COLUMN = PLAYERS_COLUMN + RECORDS_PER_BLOCK;
+    static final int TURNS_COLUMN = WINNER_COLUMN + RECORDS_PER_BLOCK;
+    static final int DRAWS_COLUMN = TURNS_COLUMN + Character.BYTES * RECORDS_PER_BLOCK;
+    static final int EIGHTS_COLUMN = DRAWS_COLUMN + Character.BYTES * RECORDS_PER_BLOCK;
+    static final int STRATEGY_COLUMN = EIGHTS_COLUMN + RECORDS_PER_BLOCK;
+    static final int BLOCK_SIZE = STRATEGY_COLUMN + MAXIMUM_SEATS * RECORDS_PER_BLOCK;
+
+    /**
+     * The strategy index of an empty seat.
+     */
+    static final int NO_STRATEGY = 0xFF;
+
+    /**
+     * Class variables.
+     */
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<String> strategyNames;
+    private int namesEnd;
+    private MappedByteBuffer block;
+    private long blockNumber = -1;
+    private long recordCount;
+
+    /**
+     * Opens a store, creating the file if it does not exist.
+     *
+     * @param file The file of the store
+     * @throws IOException If the file cannot be opened, or is not a store
+     */
+    public GameResultStore(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+        try {
+            boolean isNew = channel.size() == 0;
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (isNew) {
+                header.putInt(MAGIC_OFFSET, MAGIC);
+                header.putInt(VERSION_OFFSET, VERSION);
+                header.putInt(RECORDS_PER_BLOCK_OFFSET, RECORDS_PER_BLOCK);
+                strategyNames = new ArrayList<>();
+            } else {
+                strategyNames = readStrategyNames(header, file);
+                recordCount = readRecordCount(header);
+            }
+            namesEnd = NAMES_OFFSET;
+            for (String strategyName : strategyNames) {
+                namesEnd += Short.BYTES + strategyName.getBytes(StandardCharsets.UTF_8).length;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Getters.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    public synchronized List<String> getStrategyNames() {
+        return Collections.unmodifiableList(new ArrayList<>(strategyNames));
+    }
+
+    /**
+     * Gets the index that the strategy columns use for a strategy, adding the strategy to the header
+     * the first time it is seen. Engines look their strategies up once per seating rather than once
+     * per game.
+     *
+     * @param strategyName The name of the strategy
+     * @return The index of the strategy
+     */
+    public synchronized int strategyIndexOf(String strategyName) {
+        int index = strategyNames.indexOf(strategyName);
+        if (index >= 0) {
+            return index;
+        }
+        byte[] name = strategyName.getBytes(StandardCharsets.UTF_8);
+        if (strategyNames.size() == NO_STRATEGY || namesEnd + Short.BYTES + name.length > HEADER_SIZE) {
+            throw new IllegalStateException("The store " + file + " has no room for the name of another strategy, "
+                                            + strategyName);
+        }
+        header.putShort(namesEnd, (short) name.length);
+        for (int i = 0; i < name.length; i++) {
+            header.put(namesEnd + Short.BYTES + i, name[i]);
+        }
+        namesEnd += Short.BYTES + name.length;
+        strategyNames.add(strategyName);
+        header.putInt(STRATEGY_COUNT_OFFSET, strategyNames.size());
+        return strategyNames.size() - 1;
+    }
+
+    /**
+     * Appends the result of a game.
+     *
+     * @param gameSeed The seed that replays the game
+     * @param numberOfPlayers The number of players at the table
+     * @param winnerId The id of the winner, or 0 for a tie
+     * @param turns The number of turns played
+     * @param draws The number of cards drawn
+     * @param eights The number of eights played
+     * @param strategyIndexes The index of the strategy in each seat, as given by strategyIndexOf()
+     */
+    public synchronized void append(long gameSeed, int numberOfPlayers, int winnerId, int turns, int draws,
+                                    int eights, int[] strategyIndexes) {
+        long recordBlock = recordCount / RECORDS_PER_BLOCK;
+        if (recordBlock != blockNumber) {
+            mapBlock(recordBlock);
+        }
+        int slot = (int) (recordCount % RECORDS_PER_BLOCK);
+        block.putLong(SEED_COLUMN + Long.BYTES * slot, gameSeed);
+        block.put(PLAYERS_COLUMN + slot, (byte) numberOfPlayers);
+        block.put(WINNER_COLUMN + slot, (byte) winnerId);
+        block.putChar(TURNS_COLUMN + Character.BYTES * slot, (char) Math.min(turns, Character.MAX_VALUE));
+        block.putChar(DRAWS_COLUMN + Character.BYTES * slot, (char) Math.min(draws, Character.MAX_VALUE));
+        block.put(EIGHTS_COLUMN + slot, (byte) Math.min(eights, 0xFF));
+        for (int seat = 0; seat < MAXIMUM_SEATS; seat++) {
+            int strategyIndex = seat < numberOfPlayers ? strategyIndexes[seat] : NO_STRATEGY;
+            block.put(STRATEGY_COLUMN + seat * RECORDS_PER_BLOCK + slot, (byte) strategyIndex);
+        }
+        recordCount++;
+        header.putLong(RECORD_COUNT_OFFSET, recordCount);
+    }
+
+    /**
+     * Writes every record out to the file and closes it.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            if (block != null) {
+                block.force();
+            }
+            header.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Maps a block for writing, which grows the file to hold it if it is new.
+     *
+     * @param number The number of the block
+     */
+    private void mapBlock(long number) {
+        try {
+            block = channel.map(FileChannel.MapMode.READ_WRITE, blockOffset(number), BLOCK_SIZE);
+            block.order(ByteOrder.LITTLE_ENDIAN);
+            blockNumber = number;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finds where a block starts in the file.
+     *
+     * @param number The number of the block
+     * @return The offset of the block
+     */
+    static long blockOffset(long number) {
+        return HEADER_SIZE + number * BLOCK_SIZE;
+    }
+
+    /**
+     * Reads the number of records from a header.
+     *
+     * @param header The header, in little endian order
+     * @return The number of records
+     */
+    static long readRecordCount(ByteBuffer header) {
+        return header.getLong(RECORD_COUNT_OFFSET);
+    }
+
+    /**
+     * Checks that a header is the header of a store, and reads the names of the strategies from it.
+     *
+     * @param header The header, in little endian order
+     * @param file The file the header is from, for error messages
+     * @return The name of each strategy, in order of index
+     * @throws IOException If the header is not the header of a store this class can read
+     */
+    static List<String> readStrategyNames(ByteBuffer header, Path file) throws IOException {
+        if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException(file + " is not a game result store");
+        }
+        if (header.getInt(VERSION_OFFSET) != VERSION || header.getInt(RECORDS_PER_BLOCK_OFFSET) != RECORDS_PER_BLOCK) {
+            throw new IOException(file + " is a game result store of a different version");
+        }
+        List<String> strategyNames = new ArrayList<>();
+        int strategyCount = header.getInt(STRATEGY_COUNT_OFFSET);
+        int position = NAMES_OFFSET;
+        for (int strategy = 0; strategy < strategyCount; strategy++) {
+            byte[] name = new byte[header.getShort(position)];
+            for (int i = 0; i < name.length; i++) {
+                name[i] = header.get(position + Short.BYTES + i);
+            }
+            strategyNames.add(new String(name, StandardCharsets.UTF_8));
+            position += Short.BYTES + name.length;
+        }
+        return strategyNames;
+    }
+}
@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts games of Crazy 8's over TCP, so that anyone with a telnet or netcat client can play against
+ * the bots. Every connection is a session with its own game engine, which reads the user's moves from
+ * the connection a line at a time and writes the game back to it.
+ *
+ * Each session runs on its own virtual thread when the Java runtime has them (Java 21 and up), so an
+ * idle connection, or a session waiting out the pause between bot turns, does not hold on to a
+ * platform thread. On older runtimes the sessions fall back to a cached pool of platform threads.
+ * Every session keeps its pauses between turns with the same two thread scheduler.
+ *
+ * A session is still written as plain blocking code: it waits in place for the user's next line and,
+ * through TurnPacer.pause(), for the scheduler to end each pause. On Java 17 every open connection
+ * therefore holds one platform thread until the user leaves, so the number of players at once is
+ * bounded by the threads the machine can hold rather than by the scheduler.
+ */
+public class GameServer implements AutoCloseable {
+
+    /**
+     * Class variables.
+     */
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final boolean isUsingVirtualThreads;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicLong sessionsStarted = new AtomicLong();
+    private final ScheduledExecutorService pacingScheduler = RealTimePacer.newScheduler(2);
+    private final TurnPacer pacer = new RealTimePacer(pacingScheduler);
+    private final boolean isReshufflingDiscardPile;
+    private final Thread acceptor;
+    private volatile boolean isClosed;
+
+    /**
+     * Opens the server on the given port and starts accepting connections.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @throws IOException If the port cannot be opened
+     */
+    public GameServer(int port) throws IOException {
+        this(port, false);
+    }
+
+    /**
+     * Opens the server on the given port and starts accepting connections.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @param isReshufflingDiscardPile Whether every session's games reshuffle the discard pile into the
+     *                                 draw pile when it runs out, instead of ending in a tie
+     * @throws IOException If the port cannot be opened
+     */
+    public GameServer(int port, boolean isReshufflingDiscardPile) throws IOException {
+        this.isReshufflingDiscardPile = isReshufflingDiscardPile;
+        this.serverSocket = new ServerSocket(port);
+        ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+        this.isUsingVirtualThreads = virtualThreads != null;
+        this.sessions = isUsingVirtualThreads ? virtualThreads : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "game-session");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.acceptor = new Thread(this::acceptConnections, "game-server-acceptor");
+        this.acceptor.start();
+    }
+
+    /**
+     * Getters.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return isUsingVirtualThreads;
+    }
+
+    public boolean isReshufflingDiscardPile() {
+        return isReshufflingDiscardPile;
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    public long getSessionsStarted() {
+        return sessionsStarted.get();
+    }
+
+    /**
+     * Waits until the server is closed.
+     *
+     * @throws InterruptedException If the waiting thread is interrupted
+     */
+    public void awaitClose() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * Stops accepting connections and ends every session by closing its connection.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            //The server is going away either way.
+        }
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+        sessions.shutdownNow();
+        try {
+            sessions.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            //The sessions still pause on their way out, so the scheduler outlives them.
+            pacingScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * The acceptor thread's loop: hands every new connection to a session.
+     */
+    private void acceptConnections() {
+        while (!isClosed) {
+            try {
+                Socket connection = serverSocket.accept();
+                connections.add(connection);
+                startSession(connection);
+            } catch (IOException e) {
+                if (!isClosed) {
+                    System.err.println("The game server could not accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands a connection to a session, or closes it if the server is closing and takes no new sessions.
+     *
+     * @param connection The user's connection
+     */
+    private void startSession(Socket connection) {
+        try {
+            sessions.execute(() -> runSession(connection));
+        } catch (RejectedExecutionException e) {
+            connections.remove(connection);
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Plays games with the user on the other end of a connection until they leave.
+     *
+     * @param connection The user's connection
+     */
+    private void runSession(Socket connection) {
+        activeSessions.incrementAndGet();
+        sessionsStarted.incrementAndGet();
+        try (Socket socket = connection;
+             Scanner scanner = new Scanner(socket.getInputStream(), StandardCharsets.UTF_8);
+             PrintStream out = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            GameEngine gameEngine = new GameEngine();
+            gameEngine.setPacer(pacer);
+            gameEngine.setReshufflingDiscardPile(isReshufflingDiscardPile);
+            do {
+                gameEngine.playGame(scanner, out);
+                out.println("\nType \"yes\" to play again, or anything else to leave: ");
+            } while (!isClosed && scanner.nextLine().trim().equalsIgnoreCase("yes"));
+            out.println("Thanks for playing!");
+        } catch (NoSuchElementException | SocketException e) {
+            //The user disconnected or the server is closing.
+        } catch (IOException e) {
+            System.err.println("A game session failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            //Anything else is a bug in the engine or a strategy rather than a user leaving.
+            System.err.println("A game session failed with an unexpected error:");
+            e.printStackTrace();
+        } finally {
+            connections.remove(connection);
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread for every task, if the runtime has virtual
+     * threads. It is looked up by reflection so that the server still compiles and runs on Java 17.
+     *
+     * @return The executor, or null on a runtime without virtual threads
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Closes a connection, ignoring any error.
+     *
+     * @param connection The connection
+     */
+    private static void closeQuietly(Socket connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            //The connection is already gone.
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connects many clients to the game server at once, each of which plays whole games through its own
+ * local socket the way a user at a telnet client would, and reports how the server kept up:
+ *
+ *     java GameServerLoadTest [CLIENTS] [GAMES] [PORT]
+ *
+ * Every client plays GAMES games, 1 by default, against 2 to 5 bots. Without a port, the test starts
+ * its own server on a free port and closes it at the end. The bots pause between turns in real time,
+ * so a run takes about as long as the longest game.
+ */
+public class GameServerLoadTest {
+
+    /**
+     * Constants for the test runs.
+     */
+    private static final int DEFAULT_CLIENTS = 200;
+    private static final int DEFAULT_GAMES = 1;
+    private static final int READ_TIMEOUT_MILLIS = 60_000;
+    private static final long SAMPLE_MILLIS = 100;
+
+    /**
+     * Runs the clients and prints the results.
+     *
+     * @param args Optionally the number of clients, the number of games per client and the port of a
+     *             running server.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int numberOfClients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int gamesPerClient = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GAMES;
+        GameServer server = args.length > 2 ? null : new GameServer(0);
+        int port = server == null ? Integer.parseInt(args[2]) : server.getPort();
+
+        AtomicLong gamesFinished = new AtomicLong();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(numberOfClients);
+        for (int client = 0; client < numberOfClients; client++) {
+            int numberOfBots = 2 + client % 4;
+            clients.execute(() -> {
+                try {
+                    start.await();
+                    gamesFinished.addAndGet(playClient(port, numberOfBots, gamesPerClient));
+                } catch (IOException | RuntimeException e) {
+                    failures.add(e.toString());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        clients.shutdown();
+
+        //Every client connects at the same moment, and the open sessions are sampled until they are done.
+        long startTime = System.nanoTime();
+        start.countDown();
+        int mostActiveSessions = 0;
+        while (!clients.awaitTermination(SAMPLE_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (server != null) {
+                mostActiveSessions = Math.max(mostActiveSessions, server.getActiveSessions());
+            }
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+
+        System.out.printf("%d clients finished %d of %d games in %.1f seconds%n", numberOfClients,
+                          gamesFinished.get(), (long) numberOfClients * gamesPerClient, elapsedTime / 1e9);
+        if (server != null) {
+            System.out.println("Most sessions open at once: " + mostActiveSessions + ", on "
+                               + (server.isUsingVirtualThreads() ? "virtual threads" : "platform threads"));
+            server.close();
+        }
+        if (!failures.isEmpty()) {
+            System.out.println(failures.size() + " clients failed, the first with: " + failures.peek());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays games on one connection, always playing the first card that the server lists as playable
+     * and declaring hearts for every eight.
+     *
+     * @param port The port of the server on this machine
+     * @param numberOfBots The number of bots to play against
+     * @param numberOfGames The number of games to play before leaving
+     * @return The number of games played to the end
+     * @throws IOException If the connection fails or the server stops answering
+     */
+    private static int playClient(int port, int numberOfBots, int numberOfGames) throws IOException {
+        try (Socket socket = new Socket("localhost", port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintStream out = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            int gamesPlayed = 0;
+            List<String> playableCards = new ArrayList<>();
+            boolean isListingPlayableCards = false;
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                line = line.trim();
+                if (isListingPlayableCards && line.matches("[A-Z]+ of [A-Z]+")) {
+                    playableCards.add(line);
+                    continue;
+                }
+                isListingPlayableCards = false;
+                if (line.startsWith("Welcome to Crazy 8's!")) {
+                    out.println(numberOfBots);
+                } else if (line.startsWith("The cards that you can play are:")) {
+                    playableCards.clear();
+                    isListingPlayableCards = true;
+                } else if (line.startsWith("Choose which card")) {
+                    if (playableCards.isEmpty()) {
+                        throw new IllegalStateException("The server asked for a card when none can be played");
+                    }
+                    out.println(playableCards.get(0));
+                } else if (line.startsWith("Because you've played an eight")) {
+                    out.println("hearts");
+                } else if (line.startsWith("Type \"yes\" to play again")) {
+                    gamesPlayed++;
+                    out.println(gamesPlayed < numberOfGames ? "yes" : "no");
+                } else if (line.startsWith("Thanks for playing!")) {
+                    return gamesPlayed;
+                } else if (line.startsWith("The format which you entered") || line.endsWith("is not in your hand.")
+                           || line.endsWith("can't be played on the current pile.") || line.startsWith("That is an invalid")) {
+                    throw new IllegalStateException("The server rejected the client's input: " + line);
+                }
+            }
+            throw new IOException("The server closed the connection after " + gamesPlayed + " games");
+        }
+    }
+}
@@ -0,0 +1,494 @@
+import java.util.SplittableRandom;
+
+/**
+ * A compact snapshot of everything in a game of Crazy 8's: each player's hand, the draw pile, the
+ * discard pile, the suit to match and whose turn it is.
+ *
+ * Hands and the discard pile are card masks and the draw pile is an array of card ordinals, so a
+ * state can be copied into another with a few array copies and no allocation. This makes it cheap to
+ * fork a game and play it forward, which is what search strategies do.
+ *
+ * Moves are encoded as ints: playing a card is the card ordinal shifted left by two bits with the suit
+ * to match in the low two bits, and drawing is DRAW.
+ *
+ * The game engine plays every game on one of these, so a game is nothing more than a state and the
+ * moves applied to it.
+ */
+public class GameState implements GameStateView {
+
+    /**
+     * Constants for game states.
+     */
+    public static final int MAXIMUM_PLAYERS = 6;
+    public static final int DRAW = Card.DECK_SIZE << 2;
+    public static final int NO_WINNER = -1;
+    static final long SHUFFLE_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Class variables. Seats are numbered from 0, so seat i belongs to the player with id i + 1.
+     */
+    private int numberOfPlayers;
+    private final long[] hands = new long[MAXIMUM_PLAYERS];
+    private final byte[] drawPile = new byte[Card.DECK_SIZE];
+    private int drawPileSize;
+    private long discardPile;
+    private int topCard;
+    private int currentSuit;
+    private int currentPlayer;
+    private int winner = NO_WINNER;
+    private boolean isOver;
+    private boolean isReshuffling;
+    private long shuffleSeed;
+    private final byte[] hiddenCards = new byte[Card.DECK_SIZE];
+
+    /**
+     * Encodes playing a card as a move.
+     *
+     * @param card The ordinal of the card being played
+     * @param suit The ordinal of the suit to match afterwards, which may differ from the card's suit
+     *             only for an eight
+     * @return The move
+     */
+    public static int play(int card, int suit) {
+        return card << 2 | suit;
+    }
+
+    /**
+     * Gets the card played by a move other than DRAW.
+     *
+     * @param move The move
+     * @return The ordinal of the card played
+     */
+    public static int cardOf(int move) {
+        return move >>> 2;
+    }
+
+    /**
+     * Gets the suit to match after a move other than DRAW.
+     *
+     * @param move The move
+     * @return The ordinal of the suit to match
+     */
+    public static int suitOf(int move) {
+        return move & 3;
+    }
+
+    /**
+     * Creates a copy of this state.
+     *
+     * @return A new state equal to this one
+     */
+    @Override
+    public GameState copy() {
+        GameState copy = new GameState();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Overwrites the given state with this one, without allocating.
+     *
+     * @param target The state to be overwritten
+     */
+    @Override
+    public void copyInto(GameState target) {
+        target.copyFrom(this);
+    }
+
+    /**
+     * Overwrites this state with another one, without allocating.
+     *
+     * @param other The state to be copied
+     */
+    public void copyFrom(GameState other) {
+        numberOfPlayers = other.numberOfPlayers;
+        System.arraycopy(other.hands, 0, hands, 0, MAXIMUM_PLAYERS);
+        System.arraycopy(other.drawPile, 0, drawPile, 0, other.drawPileSize);
+        drawPileSize = other.drawPileSize;
+        discardPile = other.discardPile;
+        topCard = other.topCard;
+        currentSuit = other.currentSuit;
+        currentPlayer = other.currentPlayer;
+        winner = other.winner;
+        isOver = other.isOver;
+        isReshuffling = other.isReshuffling;
+        shuffleSeed = other.shuffleSeed;
+    }
+
+    /**
+     * Empties the state for a new game between the given number of players.
+     *
+     * @param numberOfPlayers The number of players at the table
+     */
+    public void reset(int numberOfPlayers) {
+        this.numberOfPlayers = numberOfPlayers;
+        for (int seat = 0; seat < MAXIMUM_PLAYERS; seat++) {
+            hands[seat] = 0;
+        }
+        drawPileSize = 0;
+        discardPile = 0;
+        currentPlayer = 0;
+        winner = NO_WINNER;
+        isOver = false;
+        isReshuffling = false;
+    }
+
+    /**
+     * Getters and Setters.
+     */
+    @Override
+    public int getNumberOfPlayers() {
+        return numberOfPlayers;
+    }
+
+    @Override
+    public long getHand(int seat) {
+        return hands[seat];
+    }
+
+    public void setHand(int seat, long hand) {
+        hands[seat] = hand;
+    }
+
+    @Override
+    public int getHandSize(int seat) {
+        return Long.bitCount(hands[seat]);
+    }
+
+    @Override
+    public int getDrawPileSize() {
+        return drawPileSize;
+    }
+
+    /**
+     * Replaces the draw pile with the cards of the given stack, in the same order.
+     *
+     * @param pile The draw pile
+     */
+    public void setDrawPile(CardStack pile) {
+        drawPileSize = pile.size();
+        for (int i = 0; i < drawPileSize; i++) {
+            drawPile[i] = (byte) pile.get(i).getOrdinal();
+        }
+    }
+
+    /**
+     * Gets a card of the draw pile.
+     *
+     * @param position The position of the card, where 0 is the bottom of the pile
+     * @return The ordinal of the card
+     */
+    public int getDrawPileCard(int position) {
+        return drawPile[position];
+    }
+
+    /**
+     * Gets the card that the next draw would take.
+     *
+     * @return The ordinal of the card on top of the draw pile, which must not be empty
+     */
+    public int peekDrawPile() {
+        return drawPile[drawPileSize - 1];
+    }
+
+    /**
+     * Whether the discard pile is shuffled back into the draw pile when the draw pile runs out, rather
+     * than the game ending in a tie.
+     *
+     * @return True if the discard pile is reshuffled
+     */
+    public boolean isReshuffling() {
+        return isReshuffling;
+    }
+
+    /**
+     * Sets whether the discard pile is shuffled back into the draw pile when the draw pile runs out.
+     *
+     * @param isReshuffling True to reshuffle the discard pile, false to end the game in a tie
+     * @param shuffleSeed The seed of the reshuffles, so that a game with reshuffles can be replayed
+     */
+    public void setReshuffling(boolean isReshuffling, long shuffleSeed) {
+        this.isReshuffling = isReshuffling;
+        this.shuffleSeed = shuffleSeed;
+    }
+
+    /**
+     * Gets the mask of every card in the discard pile, including the top card.
+     *
+     * @return The discard pile
+     */
+    @Override
+    public long getDiscardPile() {
+        return discardPile;
+    }
+
+    /**
+     * Replaces the discard pile with the cards of the given stack.
+     *
+     * @param pile The discard pile, which must not be empty
+     */
+    public void setDiscardPile(CardStack pile) {
+        discardPile = 0;
+        for (int i = 0; i < pile.size(); i++) {
+            discardPile |= 1L << pile.get(i).getOrdinal();
+        }
+        topCard = pile.peek().getOrdinal();
+    }
+
+    /**
+     * Starts the discard pile with a single card, whose suit becomes the suit to match.
+     *
+     * @param card The ordinal of the first card discarded
+     */
+    public void startDiscardPile(int card) {
+        discardPile = 1L << card;
+        topCard = card;
+        currentSuit = Card.suitOf(card);
+    }
+
+    @Override
+    public int getTopCard() {
+        return topCard;
+    }
+
+    @Override
+    public int getCurrentSuit() {
+        return currentSuit;
+    }
+
+    public void setCurrentSuit(int currentSuit) {
+        this.currentSuit = currentSuit;
+    }
+
+    @Override
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public void setCurrentPlayer(int currentPlayer) {
+        this.currentPlayer = currentPlayer;
+    }
+
+    @Override
+    public boolean isOver() {
+        return isOver;
+    }
+
+    /**
+     * Gets the seat of the winner of a finished game.
+     *
+     * @return The winner's seat, or NO_WINNER if the game ended in a tie or is not over
+     */
+    @Override
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Gets the cards that the current player may play.
+     *
+     * @return The mask of the playable cards in the current player's hand
+     */
+    @Override
+    public long getPlayableCards() {
+        return hands[currentPlayer] & Hand.playableMask(topCard, currentSuit);
+    }
+
+    /**
+     * Lists the moves that the current player may make. A player has to draw when they cannot play,
+     * and cannot draw when they can play. An eight can be played with any of the four suits.
+     *
+     * @param moves An array of at least 64 elements that receives the moves
+     * @return The number of moves written to the array
+     */
+    @Override
+    public int getLegalMoves(int[] moves) {
+        long playableCards = getPlayableCards();
+        if (playableCards == 0) {
+            moves[0] = DRAW;
+            return 1;
+        }
+        int count = 0;
+        for (long cards = playableCards; cards != 0; cards &= cards - 1) {
+            int card = Long.numberOfTrailingZeros(cards);
+            if (Card.rankOf(card) == Card.EIGHT) {
+                for (int suit = 0; suit < Card.NUMBER_OF_SUITS; suit++) {
+                    moves[count++] = play(card, suit);
+                }
+            } else {
+                moves[count++] = play(card, Card.suitOf(card));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Makes a move for the current player and passes the turn on. The game ends in a win when the
+     * player plays their last card, and in a tie when the player has to draw from an empty draw pile
+     * that cannot be refilled from the discard pile.
+     *
+     * @param move A legal move for the current player
+     */
+    public void apply(int move) {
+        if (move == DRAW) {
+            if (drawPileSize == 0 && !(isReshuffling && reshuffleDiscardPile())) {
+                isOver = true;
+                winner = NO_WINNER;
+                return;
+            }
+            hands[currentPlayer] |= 1L << drawPile[--drawPileSize];
+        } else {
+            int card = cardOf(move);
+            hands[currentPlayer] &= ~(1L << card);
+            discardPile |= 1L << card;
+            topCard = card;
+            currentSuit = suitOf(move);
+            if (hands[currentPlayer] == 0) {
+                isOver = true;
+                winner = currentPlayer;
+                return;
+            }
+        }
+        currentPlayer = currentPlayer + 1 == numberOfPlayers ? 0 : currentPlayer + 1;
+    }
+
+    /**
+     * Moves every card of the discard pile but the top card into the empty draw pile, in a random
+     * order. The cards are shuffled in place in the draw pile's array, so nothing is allocated.
+     *
+     * @return False if the discard pile only holds the top card, so that there is nothing to reshuffle
+     */
+    public boolean reshuffleDiscardPile() {
+        long cards = discardPile & ~(1L << topCard);
+        if (cards == 0) {
+            return false;
+        }
+        for (; cards != 0; cards &= cards - 1) {
+            drawPile[drawPileSize++] = (byte) Long.numberOfTrailingZeros(cards);
+        }
+        discardPile = 1L << topCard;
+        shuffleSeed = shuffleCards(drawPile, 0, drawPileSize, shuffleSeed);
+        return true;
+    }
+
+    /**
+     * Shuffles part of an array of cards in place, the way the discard pile is reshuffled. The batch
+     * engine reshuffles its draw piles with this too, so that its games stay the same as the engine's.
+     *
+     * @param cards The array of card ordinals
+     * @param offset The position of the first card to shuffle
+     * @param size The number of cards to shuffle
+     * @param shuffleSeed The state of the generator before the shuffle
+     * @return The state of the generator after the shuffle
+     */
+    static long shuffleCards(byte[] cards, int offset, int size, long shuffleSeed) {
+        for (int i = size; i > 1; i--) {
+            shuffleSeed += SHUFFLE_GAMMA;
+            int j = nextShuffleInt(shuffleSeed, i);
+            byte swap = cards[offset + i - 1];
+            cards[offset + i - 1] = cards[offset + j];
+            cards[offset + j] = swap;
+        }
+        return shuffleSeed;
+    }
+
+    /**
+     * Draws a number of the reshuffles with the SplitMix64 generator, which keeps its state in a single
+     * long so that copying a state copies its generator too.
+     *
+     * @param shuffleSeed The state of the generator, already moved on by SHUFFLE_GAMMA
+     * @param bound The number of possible values
+     * @return A number from 0 up to but not including bound
+     */
+    static int nextShuffleInt(long shuffleSeed, int bound) {
+        long z = shuffleSeed;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (int) (((z >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Replaces everything that the given seat cannot see with a random guess that is consistent with
+     * what it can see. The cards in the other players' hands and in the draw pile are shuffled
+     * together and dealt back out, so every hand keeps its size and the draw pile keeps its size, and
+     * the seed of any later reshuffles is drawn again.
+     *
+     * @param perspective The seat whose view of the game is kept
+     * @param random The random number generator used to shuffle the hidden cards
+     */
+    public void determinize(int perspective, SplittableRandom random) {
+        int hiddenCount = 0;
+        for (int seat = 0; seat < numberOfPlayers; seat++) {
+            if (seat == perspective) {
+                continue;
+            }
+            for (long cards = hands[seat]; cards != 0; cards &= cards - 1) {
+                hiddenCards[hiddenCount++] = (byte) Long.numberOfTrailingZeros(cards);
+            }
+        }
+        System.arraycopy(drawPile, 0, hiddenCards, hiddenCount, drawPileSize);
+        hiddenCount += drawPileSize;
+
+        for (int i = hiddenCount; i > 1; i--) {
+            int j = random.nextInt(i);
+            byte swap = hiddenCards[i - 1];
+            hiddenCards[i - 1] = hiddenCards[j];
+            hiddenCards[j] = swap;
+        }
+
+        int next = 0;
+        for (int seat = 0; seat < numberOfPlayers; seat++) {
+            if (seat == perspective) {
+                continue;
+            }
+            int handSize = Long.bitCount(hands[seat]);
+            long hand = 0;
+            for (int i = 0; i < handSize; i++) {
+                hand |= 1L << hiddenCards[next++];
+            }
+            hands[seat] = hand;
+        }
+        System.arraycopy(hiddenCards, next, drawPile, 0, drawPileSize);
+        if (isReshuffling) {
+            shuffleSeed = random.nextLong();
+        }
+    }
+
+    /**
+     * Replaces everything that the given seat cannot see with a fixed arrangement, so that the state
+     * tells the seat nothing more than it could see at the table. The hidden cards are dealt back out
+     * in order of their ordinals, every hand and the draw pile keep their sizes, and the seed of the
+     * reshuffles is cleared.
+     *
+     * @param perspective The seat whose view of the game is kept
+     */
+    public void conceal(int perspective) {
+        long hidden = 0;
+        for (int seat = 0; seat < numberOfPlayers; seat++) {
+            if (seat != perspective) {
+                hidden |= hands[seat];
+            }
+        }
+        for (int i = 0; i < drawPileSize; i++) {
+            hidden |= 1L << drawPile[i];
+        }
+
+        for (int seat = 0; seat < numberOfPlayers; seat++) {
+            if (seat == perspective) {
+                continue;
+            }
+            long hand = 0;
+            for (int i = Long.bitCount(hands[seat]); i > 0; i--) {
+                hand |= hidden & -hidden;
+                hidden &= hidden - 1;
+            }
+            hands[seat] = hand;
+        }
+        for (int i = 0; i < drawPileSize; i++) {
+            drawPile[i] = (byte) Long.numberOfTrailingZeros(hidden);
+            hidden &= hidden - 1;
+        }
+        shuffleSeed = 0;
+    }
+}
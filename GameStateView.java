@@ -0,0 +1,77 @@
+/**
+ * A read-only view of a game state. The game engine hands strategies a view of what their own seat
+ * can see, which they can look at without being able to change the game.
+ *
+ * A view is only valid for as long as its owner leaves it alone, so a strategy that wants to keep the
+ * state or play it forward copies it with copy() or copyInto().
+ */
+public interface GameStateView {
+
+    int getNumberOfPlayers();
+
+    /**
+     * Gets the cards in a seat's hand. A view that is limited to one seat's perspective throws an
+     * IllegalArgumentException for every other seat.
+     *
+     * @param seat The seat, numbered from 0
+     * @return The mask of the cards in the seat's hand
+     */
+    long getHand(int seat);
+
+    int getHandSize(int seat);
+
+    int getDrawPileSize();
+
+    /**
+     * Gets the mask of every card in the discard pile, including the top card.
+     *
+     * @return The discard pile
+     */
+    long getDiscardPile();
+
+    int getTopCard();
+
+    int getCurrentSuit();
+
+    int getCurrentPlayer();
+
+    boolean isOver();
+
+    /**
+     * Gets the seat of the winner of a finished game.
+     *
+     * @return The winner's seat, or GameState.NO_WINNER if the game ended in a tie or is not over
+     */
+    int getWinner();
+
+    /**
+     * Gets the cards that the current player may play.
+     *
+     * @return The mask of the playable cards in the current player's hand
+     */
+    long getPlayableCards();
+
+    /**
+     * Lists the moves that the current player may make.
+     *
+     * @param moves An array of at least 64 elements that receives the moves
+     * @return The number of moves written to the array
+     */
+    int getLegalMoves(int[] moves);
+
+    /**
+     * Creates a mutable copy of this state. A copy of a view that is limited to one seat's perspective
+     * has everything the seat cannot see concealed with GameState.conceal().
+     *
+     * @return A new state equal to this one
+     */
+    GameState copy();
+
+    /**
+     * Overwrites the given state with this one, without allocating, concealing the same cards as
+     * copy().
+     *
+     * @param target The state to be overwritten
+     */
+    void copyInto(GameState target);
+}
@@ -0,0 +1,226 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents the cards in a player's hand as a 64 bit mask, with bit i set when the card with
+ * ordinal i is in the hand.
+ *
+ * Adding and removing a card are single bit operations, and finding the playable cards in a hand is
+ * a single AND with one of the precomputed masks below.
+ *
+ * Hand is also where the rule for which cards may be played lives. Every legality check in the game,
+ * whether by the engine, a bot or the user's input, goes through the PLAYABLE_MASKS table.
+ */
+public class Hand implements Iterable<Card> {
+
+    /**
+     * Precomputed masks of every card of a suit, every card of a rank, and every eight. PLAYABLE_MASKS
+     * holds the mask of the playable cards for each top card and suit to match, at index
+     * topCard * 4 + suit.
+     */
+    public static final long[] SUIT_MASKS = new long[Card.NUMBER_OF_SUITS];
+    public static final long[] RANK_MASKS = new long[Card.NUMBER_OF_RANKS];
+    public static final long EIGHTS;
+    private static final long[] PLAYABLE_MASKS = new long[Card.DECK_SIZE * Card.NUMBER_OF_SUITS];
+
+    /**
+     * Penalty points for the cards left in a hand at the end of a round: 50 for an eight, 10 for a
+     * face card, 1 for an ace and the face value for the other cards, indexed by rank.
+     */
+    private static final int[] PENALTY_POINTS = {1, 2, 3, 4, 5, 6, 7, 50, 9, 10, 10, 10, 10};
+
+    static {
+        for (int ordinal = 0; ordinal < Card.DECK_SIZE; ordinal++) {
+            SUIT_MASKS[Card.suitOf(ordinal)] |= 1L << ordinal;
+            RANK_MASKS[Card.rankOf(ordinal)] |= 1L << ordinal;
+        }
+        EIGHTS = RANK_MASKS[Card.EIGHT];
+
+        //A card is playable if it matches the rank of the top card, matches the suit to match, or is an eight.
+        for (int topCard = 0; topCard < Card.DECK_SIZE; topCard++) {
+            for (int suit = 0; suit < Card.NUMBER_OF_SUITS; suit++) {
+                PLAYABLE_MASKS[topCard << 2 | suit] = RANK_MASKS[Card.rankOf(topCard)] | SUIT_MASKS[suit] | EIGHTS;
+            }
+        }
+    }
+
+    private long cards;
+
+    /**
+     * Gets the mask of the cards in this hand.
+     *
+     * @return A mask with bit i set when the card with ordinal i is in this hand
+     */
+    public long getMask() {
+        return cards;
+    }
+
+    public int size() {
+        return Long.bitCount(cards);
+    }
+
+    public boolean isEmpty() {
+        return cards == 0;
+    }
+
+    public boolean contains(Card card) {
+        return (cards & (1L << card.getOrdinal())) != 0;
+    }
+
+    public void add(Card card) {
+        cards |= 1L << card.getOrdinal();
+    }
+
+    /**
+     * Removes a card from this hand.
+     *
+     * @param card The card to be removed
+     * @return Whether or not the card was in this hand
+     */
+    public boolean remove(Card card) {
+        long bit = 1L << card.getOrdinal();
+        boolean wasInHand = (cards & bit) != 0;
+        cards &= ~bit;
+        return wasInHand;
+    }
+
+    public void clear() {
+        cards = 0;
+    }
+
+    /**
+     * Counts the cards of a suit in this hand.
+     *
+     * @param suit The suit to be counted
+     * @return The number of cards of that suit
+     */
+    public int countOfSuit(Card.Suit suit) {
+        return Long.bitCount(cards & SUIT_MASKS[suit.ordinal()]);
+    }
+
+    /**
+     * Finds the suit that this hand holds the most cards of. Ties go to the suit declared first in
+     * Card.Suit, and an empty hand gives the first suit.
+     *
+     * @return The most common suit in this hand
+     */
+    public Card.Suit mostCommonSuit() {
+        return Card.suitFromOrdinal(mostCommonSuit(cards));
+    }
+
+    /**
+     * Finds the suit that a mask of cards holds the most cards of. Ties go to the suit declared first
+     * in Card.Suit, and an empty mask gives the first suit.
+     *
+     * @param cards A mask of cards
+     * @return The ordinal of the most common suit
+     */
+    public static int mostCommonSuit(long cards) {
+        int commonSuit = 0;
+        int suitOccurrences = Long.bitCount(cards & SUIT_MASKS[0]);
+        for (int suit = 1; suit < Card.NUMBER_OF_SUITS; suit++) {
+            int occurrences = Long.bitCount(cards & SUIT_MASKS[suit]);
+            if (occurrences > suitOccurrences) {
+                commonSuit = suit;
+                suitOccurrences = occurrences;
+            }
+        }
+        return commonSuit;
+    }
+
+    /**
+     * Gets the mask of the cards that may legally be played on top of the given card. A card is
+     * playable if it matches the rank of the top card, matches the suit to match, or is an eight.
+     *
+     * @param topPileCard The card currently at the top of the pile
+     * @param pileSuit The suit to match, which differs from the top card's suit after an eight
+     * @return The mask of every card in the deck that may be played
+     */
+    public static long playableMask(Card topPileCard, Card.Suit pileSuit) {
+        return playableMask(topPileCard.getOrdinal(), pileSuit.ordinal());
+    }
+
+    /**
+     * Gets the mask of the cards that may legally be played on top of the given card.
+     *
+     * @param topPileCard The ordinal of the card currently at the top of the pile
+     * @param pileSuit The ordinal of the suit to match
+     * @return The mask of every card in the deck that may be played
+     */
+    public static long playableMask(int topPileCard, int pileSuit) {
+        return PLAYABLE_MASKS[topPileCard << 2 | pileSuit];
+    }
+
+    /**
+     * Checks whether a card may legally be played on top of the given card.
+     *
+     * @param card The card to be played
+     * @param topPileCard The card currently at the top of the pile
+     * @param pileSuit The suit to match, which differs from the top card's suit after an eight
+     * @return True if the card may be played
+     */
+    public static boolean isPlayable(Card card, Card topPileCard, Card.Suit pileSuit) {
+        return (playableMask(topPileCard, pileSuit) & 1L << card.getOrdinal()) != 0;
+    }
+
+    /**
+     * Gets the cards in this hand that may legally be played on top of the given card.
+     *
+     * @param topPileCard The card currently at the top of the pile
+     * @param pileSuit The suit to match, which differs from the top card's suit after an eight
+     * @return The mask of the playable cards in this hand
+     */
+    public long getPlayableCards(Card topPileCard, Card.Suit pileSuit) {
+        return cards & playableMask(topPileCard, pileSuit);
+    }
+
+    /**
+     * Adds up the penalty points of the cards in a mask.
+     *
+     * @param cards A mask of cards
+     * @return The penalty points of the cards
+     */
+    public static int penaltyPoints(long cards) {
+        int points = 0;
+        for (; cards != 0; cards &= cards - 1) {
+            points += PENALTY_POINTS[Card.rankOf(Long.numberOfTrailingZeros(cards))];
+        }
+        return points;
+    }
+
+    /**
+     * Gets the card with the lowest ordinal in a non-empty mask.
+     *
+     * @param mask A mask of cards
+     * @return The first card in the mask
+     */
+    public static Card firstCard(long mask) {
+        return Card.fromOrdinal(Long.numberOfTrailingZeros(mask));
+    }
+
+    /**
+     * Iterates over the cards in this hand in the order of their ordinals. Later changes to the hand
+     * are not seen by an iterator that has already been created.
+     */
+    @Override
+    public Iterator<Card> iterator() {
+        return new Iterator<Card>() {
+            private long remaining = cards;
+
+            @Override
+            public boolean hasNext() {
+                return remaining != 0;
+            }
+
+            @Override
+            public Card next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                Card card = firstCard(remaining);
+                remaining &= remaining - 1;
+                return card;
+            }
+        };
+    }
+}
@@ -0,0 +1,172 @@
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * The weights that HeuristicPlayer scores its moves with. A set of weights is immutable, and can be
+ * saved to and loaded from a properties file with one line per weight.
+ *
+ * The GREEDY weights make HeuristicPlayer play exactly like the greedy Player, which is where tuning
+ * starts from.
+ */
+public final class HeuristicParameters {
+
+    /**
+     * The index of each weight, with what it is multiplied by when a card is scored.
+     *
+     * EIGHT: 1 for an eight. A negative weight holds eights back.
+     * THREATENED_EIGHT: 1 for an eight, divided by the next player's hand size.
+     * SUIT_LENGTH: the cards left in hand of the suit to match after the play.
+     * RANK_MATCHES: the cards left in hand of the same rank, which can change the suit later.
+     * THREATENED_SUIT_CHANGE: 1 when the play changes the suit to match, divided by the next player's
+     *                         hand size.
+     * POINTS: the card's penalty points, divided by 10.
+     * DECLARED_POINTS: when declaring a suit, the penalty points in hand of that suit, divided by 10.
+     *                  The suit is otherwise scored by the number of cards in hand of it.
+     */
+    public static final int EIGHT = 0;
+    public static final int THREATENED_EIGHT = 1;
+    public static final int SUIT_LENGTH = 2;
+    public static final int RANK_MATCHES = 3;
+    public static final int THREATENED_SUIT_CHANGE = 4;
+    public static final int POINTS = 5;
+    public static final int DECLARED_POINTS = 6;
+    public static final String[] NAMES = {
+        "eight", "threatenedEight", "suitLength", "rankMatches", "threatenedSuitChange", "points", "declaredPoints"
+    };
+
+    /**
+     * The weights that play like the greedy Player: an eight only when nothing else can be played, and
+     * otherwise the playable card with the lowest ordinal.
+     */
+    public static final HeuristicParameters GREEDY = new HeuristicParameters(new double[] {-100, 0, 0, 0, 0, 0, 0});
+
+    /**
+     * The file that the "heuristic" strategy loads its weights from, as written by ParameterTuner.
+     */
+    public static final String DEFAULT_FILE = "heuristic.properties";
+
+    private static HeuristicParameters tuned;
+
+    /**
+     * Class variables.
+     */
+    private final double[] weights;
+
+    /**
+     * Creates a set of weights.
+     *
+     * @param weights One weight for each of NAMES, in the same order
+     */
+    public HeuristicParameters(double[] weights) {
+        if (weights.length != NAMES.length) {
+            throw new IllegalArgumentException("Expected " + NAMES.length + " weights, got " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Gets a weight.
+     *
+     * @param index The index of the weight, such as EIGHT
+     * @return The weight
+     */
+    public double get(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Gets a copy of every weight.
+     *
+     * @return The weights, in the order of NAMES
+     */
+    public double[] toArray() {
+        return weights.clone();
+    }
+
+    /**
+     * Gets the weights in DEFAULT_FILE, which are loaded the first time they are asked for.
+     *
+     * @return The tuned weights, or GREEDY if the file does not exist
+     */
+    public static synchronized HeuristicParameters getTuned() {
+        if (tuned == null) {
+            try {
+                tuned = load(DEFAULT_FILE);
+            } catch (FileNotFoundException e) {
+                tuned = GREEDY;
+            } catch (IOException e) {
+                throw new IllegalStateException("The heuristic weights in " + DEFAULT_FILE + " could not be read", e);
+            }
+        }
+        return tuned;
+    }
+
+    /**
+     * Loads weights from a properties file. Weights missing from the file are taken from GREEDY.
+     *
+     * @param file The file
+     * @return The weights
+     * @throws IOException If the file cannot be read or a weight is not a number
+     */
+    public static HeuristicParameters load(String file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        double[] weights = GREEDY.toArray();
+        for (int i = 0; i < NAMES.length; i++) {
+            String value = properties.getProperty(NAMES[i]);
+            if (value == null) {
+                continue;
+            }
+            try {
+                weights[i] = Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("The weight " + NAMES[i] + " in " + file + " is not a number: " + value);
+            }
+        }
+        return new HeuristicParameters(weights);
+    }
+
+    /**
+     * Saves these weights to a properties file.
+     *
+     * @param file The file
+     * @param comment A comment written at the top of the file
+     * @throws IOException If the file cannot be written
+     */
+    public void save(String file, String comment) throws IOException {
+        Properties properties = new Properties();
+        for (int i = 0; i < NAMES.length; i++) {
+            properties.setProperty(NAMES[i], Double.toString(weights[i]));
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, comment);
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof HeuristicParameters && Arrays.equals(weights, ((HeuristicParameters) other).weights);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(weights);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < NAMES.length; i++) {
+            builder.append(i == 0 ? "" : ", ").append(NAMES[i]).append('=').append(String.format("%.3f", weights[i]));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.List;
+
+/**
+ * A bot that scores every card it may play with a weighted sum of a few features of the play, and
+ * plays the card with the highest score. The weights come from a HeuristicParameters, and decide how
+ * long the bot holds on to its eights, how much it likes to keep playing its long suits, and how
+ * hard it tries to change the suit when the next player is about to go out.
+ *
+ * The bot watches the game as a GameObserver to keep track of how many cards each opponent holds.
+ * Ties between cards go to the lowest ordinal, so the GREEDY weights play exactly like Player.
+ */
+public class HeuristicPlayer implements PlayerStrategy, GameObserver {
+
+    /**
+     * Class variables. The hand sizes are indexed by player id.
+     */
+    private int playerId;
+    private int numberOfPlayers;
+    private Hand hand = new Hand();
+    private long playableMask;
+    private int currentSuit;
+    private final int[] handSizes = new int[GameState.MAXIMUM_PLAYERS + 1];
+    private double eightWeight;
+    private double threatenedEightWeight;
+    private double suitLengthWeight;
+    private double rankMatchesWeight;
+    private double threatenedSuitChangeWeight;
+    private double pointsWeight;
+    private double declaredPointsWeight;
+    private HeuristicParameters parameters;
+
+    /**
+     * Creates a bot with the weights in HeuristicParameters.DEFAULT_FILE, or the greedy weights if
+     * there is no such file.
+     */
+    public HeuristicPlayer() {
+        this(HeuristicParameters.getTuned());
+    }
+
+    public HeuristicPlayer(HeuristicParameters parameters) {
+        setParameters(parameters);
+    }
+
+    /**
+     * Getters and Setters.
+     */
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public Hand getHand() {
+        return hand;
+    }
+
+    public HeuristicParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Changes the weights the bot plays with, which lets a tuner reuse one bot for many sets of weights.
+     *
+     * @param parameters The weights
+     */
+    public void setParameters(HeuristicParameters parameters) {
+        this.parameters = parameters;
+        eightWeight = parameters.get(HeuristicParameters.EIGHT);
+        threatenedEightWeight = parameters.get(HeuristicParameters.THREATENED_EIGHT);
+        suitLengthWeight = parameters.get(HeuristicParameters.SUIT_LENGTH);
+        rankMatchesWeight = parameters.get(HeuristicParameters.RANK_MATCHES);
+        threatenedSuitChangeWeight = parameters.get(HeuristicParameters.THREATENED_SUIT_CHANGE);
+        pointsWeight = parameters.get(HeuristicParameters.POINTS);
+        declaredPointsWeight = parameters.get(HeuristicParameters.DECLARED_POINTS);
+    }
+
+    /**
+     * Gives the player their assigned id, as well as a list of the opponents' assigned ids.
+     *
+     * @param playerId The id for this player
+     * @param opponentIds A list of ids for this player's opponents
+     */
+    @Override
+    public void init(int playerId, List<Integer> opponentIds) {
+        this.playerId = playerId;
+        this.numberOfPlayers = opponentIds.size() + 1;
+    }
+
+    /**
+     * Called at the very beginning of the game to deal the player their initial cards. Every other
+     * player is dealt as many cards.
+     *
+     * @param cards The initial list of cards dealt to this player
+     */
+    @Override
+    public void receiveInitialCards(List<Card> cards) {
+        this.hand.clear();
+        for (Card card : cards) {
+            this.hand.add(card);
+        }
+        for (int id = 1; id <= numberOfPlayers; id++) {
+            handSizes[id] = cards.size();
+        }
+    }
+
+    @Override
+    public void cardPlayed(int playerId, Card card) {
+        handSizes[playerId]--;
+    }
+
+    @Override
+    public void cardDrawn(int playerId) {
+        handSizes[playerId]++;
+    }
+
+    /**
+     * Called to check whether the player wants to draw this turn. The player draws only when it has
+     * nothing it can play.
+     *
+     * @param topPileCard The card currently at the top of the pile
+     * @param pileSuit The suit that the pile was changed to as the result of an "8" being played.
+     * @return whether or not the player wants to draw
+     */
+    @Override
+    public boolean shouldDrawCard(Card topPileCard, Card.Suit pileSuit) {
+        if (pileSuit == null) {
+            pileSuit = topPileCard.getSuit();
+        }
+        currentSuit = pileSuit.ordinal();
+        playableMask = Hand.playableMask(topPileCard, pileSuit);
+        return (this.hand.getMask() & playableMask) == 0;
+    }
+
+    /**
+     * Called when this player has chosen to draw a card from the deck.
+     *
+     * @param drawnCard The card that this player has drawn
+     */
+    @Override
+    public void receiveCard(Card drawnCard) {
+        this.hand.add(drawnCard);
+    }
+
+    /**
+     * Plays the playable card with the highest score.
+     *
+     * @return The card this player wishes to put on top of the pile
+     */
+    @Override
+    public Card playCard() {
+        long handMask = this.hand.getMask();
+        long playableCards = handMask & playableMask;
+        if (playableCards == 0) {
+            return null;
+        }
+
+        double threat = 1.0 / Math.max(1, handSizes[playerId % numberOfPlayers + 1]);
+        int bestCard = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (long cards = playableCards; cards != 0; cards &= cards - 1) {
+            int card = Long.numberOfTrailingZeros(cards);
+            long rest = handMask & ~(1L << card);
+            int rank = Card.rankOf(card);
+            int suit;
+            double score = pointsWeight * Hand.penaltyPoints(1L << card) / 10;
+            if (rank == Card.EIGHT) {
+                suit = bestDeclaredSuit(rest);
+                score += eightWeight + threatenedEightWeight * threat;
+            } else {
+                suit = Card.suitOf(card);
+                score += rankMatchesWeight * Long.bitCount(rest & Hand.RANK_MASKS[rank]);
+            }
+            score += suitLengthWeight * Long.bitCount(rest & Hand.SUIT_MASKS[suit]);
+            if (suit != currentSuit) {
+                score += threatenedSuitChangeWeight * threat;
+            }
+            if (score > bestScore) {
+                bestCard = card;
+                bestScore = score;
+            }
+        }
+
+        Card card = Card.fromOrdinal(bestCard);
+        this.hand.remove(card);
+        return card;
+    }
+
+    /**
+     * Declares the suit with the highest score, out of the cards left in this player's hand.
+     *
+     * @return The suit to match
+     */
+    @Override
+    public Card.Suit declareSuit() {
+        return Card.suitFromOrdinal(bestDeclaredSuit(this.hand.getMask()));
+    }
+
+    /**
+     * Called when the game is being reset for the next round.
+     */
+    @Override
+    public void reset() {
+        this.hand.clear();
+    }
+
+    /**
+     * Scores every suit by the number of cards of it in a hand, plus the weighted penalty points of
+     * those cards, and picks the best. Ties go to the suit declared first in Card.Suit.
+     *
+     * @param handMask The cards in the hand
+     * @return The ordinal of the best suit
+     */
+    private int bestDeclaredSuit(long handMask) {
+        int bestSuit = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int suit = 0; suit < Card.NUMBER_OF_SUITS; suit++) {
+            long suitCards = handMask & Hand.SUIT_MASKS[suit];
+            double score = Long.bitCount(suitCards) + declaredPointsWeight * Hand.penaltyPoints(suitCards) / 10;
+            if (score > bestScore) {
+                bestSuit = suit;
+                bestScore = score;
+            }
+        }
+        return bestSuit;
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * A player whose moves are typed in by the user at the terminal.
+ */
+public class HumanPlayer implements PlayerStrategy {
+
+    /**
+     * Class variables.
+     */
+    private int playerId;
+    private List<Integer> opponentIds;
+    private Hand hand = new Hand();
+    private Scanner scanner;
+    private PrintStream out;
+    private Card topPileCard;
+    private Card.Suit pileSuit;
+    private long playableCards;
+
+    /**
+     * Creates a player that reads the user's moves with the given scanner.
+     *
+     * @param scanner The scanner reading the user's input
+     */
+    public HumanPlayer(Scanner scanner) {
+        this(scanner, System.out);
+    }
+
+    /**
+     * Creates a player that reads the user's moves with the given scanner and shows the user their
+     * cards on the given stream.
+     *
+     * @param scanner The scanner reading the user's input
+     * @param out The stream the user reads
+     */
+    public HumanPlayer(Scanner scanner, PrintStream out) {
+        this.scanner = scanner;
+        this.out = out;
+    }
+
+    /**
+     * Gives the player their assigned id, as well as a list of the opponents' assigned ids.
+     *
+     * @param playerId The id for this player
+     * @param opponentIds A list of ids for this player's opponents
+     */
+    @Override
+    public void init(int playerId, List<Integer> opponentIds) {
+        this.playerId = playerId;
+        this.opponentIds = opponentIds;
+    }
+
+    /**
+     * Called at the very beginning of the game to deal the player their initial cards.
+     *
+     * @param cards The initial list of cards dealt to this player
+     */
+    @Override
+    public void receiveInitialCards(List<Card> cards) {
+        this.hand.clear();
+        for (Card card : cards) {
+            this.hand.add(card);
+        }
+    }
+
+    /**
+     * Shows the user their hand and the cards they can play. The user has to draw when none of their
+     * cards can be played.
+     *
+     * @param topPileCard The card currently at the top of the pile
+     * @param pileSuit The suit that the pile was changed to as the result of an "8" being played.
+     * @return whether or not the user has to draw
+     */
+    @Override
+    public boolean shouldDrawCard(Card topPileCard, Card.Suit pileSuit) {
+        this.topPileCard = topPileCard;
+        this.pileSuit = pileSuit == null ? topPileCard.getSuit() : pileSuit;
+
+        out.println("\nThe cards in your hand are: ");
+        for (Card card : this.hand) {
+            out.println(card.getRank() + " of " + card.getSuit());
+        }
+
+        playableCards = this.hand.getPlayableCards(topPileCard, this.pileSuit);
+        printPlayableCards();
+
+        if (playableCards == 0) {
+            out.println("NOTHING");
+            out.println("\nBecause you have no legally playable cards, you must draw a card.");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Called when the user has to draw a card from the deck.
+     *
+     * @param drawnCard The card that the user has drawn
+     */
+    @Override
+    public void receiveCard(Card drawnCard) {
+        this.hand.add(drawnCard);
+        out.println("\nThe card that you've drawn is a " + drawnCard.getRank() + " of " + drawnCard.getSuit());
+    }
+
+    /**
+     * Asks the user which card to play until they enter a card that they can play.
+     *
+     * @return The card the user wishes to put on top of the pile
+     */
+    @Override
+    public Card playCard() {
+        out.println("\nAs a reminder, the card on top of the discard pile is a " + topPileCard.getRank() +
+                            " of " + topPileCard.getSuit() + " and the current suit to match is " + pileSuit);
+
+        out.println("\nChoose which card that youd like to play -- do so by entering the card in this format:" +
+                            "\"RANK of SUIT\". For example, enter \"ACE of DIAMONDS\" or \"ace of diamonds\" or " +
+                            "\"seven of clubs\"");
+
+        String[] cardToPlay = scanner.nextLine().toUpperCase().split(" ");
+        while (invalidCardInput(cardToPlay) || findPlayableCard(cardToPlay) == null) {
+            if (invalidCardInput(cardToPlay)) {
+                out.println("\nThe format which you entered does not match a valid card.");
+            } else {
+                Card card = Card.of(Card.Suit.valueOf(cardToPlay[2]), Card.Rank.valueOf(cardToPlay[0]));
+                if (this.hand.contains(card)) {
+                    out.println("\nThe " + card.getRank() + " of " + card.getSuit() + " can't be played on the current pile.");
+                } else {
+                    out.println("\nThe " + card.getRank() + " of " + card.getSuit() + " is not in your hand.");
+                }
+            }
+            out.println("\nChoose which card that youd like to play -- do so by entering the card in this format:" +
+                "\"RANK of SUIT\". For example, enter \"ACE of DIAMONDS\" or \"ace of diamonds\" or " +
+                "\"seven of clubs\"");
+            printPlayableCards();
+            cardToPlay = scanner.nextLine().toUpperCase().split(" ");
+        }
+
+        Card card = findPlayableCard(cardToPlay);
+        this.hand.remove(card);
+        return card;
+    }
+
+    /**
+     * Asks the user which suit the next player has to match.
+     *
+     * @return The suit the user has chosen
+     */
+    @Override
+    public Card.Suit declareSuit() {
+        out.println("\nBecause you've played an eight, you can pick the next suit. " +
+                            "Enter the suit that you'd like (Diamonds, Clubs, Spades, Hearts): ");
+        while (true) {
+            try {
+                return Card.Suit.valueOf(scanner.nextLine().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                out.println("That is not a suit. Enter Diamonds, Clubs, Spades or Hearts: ");
+            }
+        }
+    }
+
+    /**
+     * Called when the game is being reset for the next round.
+     */
+    @Override
+    public void reset() {
+        this.hand.clear();
+    }
+
+    /**
+     * Finds the playable card that the user entered.
+     *
+     * @param cardToPlay The user's input, split into words
+     * @return The playable card, or null if the input is not one of the playable cards
+     */
+    private Card findPlayableCard(String[] cardToPlay) {
+        Card card = Card.of(Card.Suit.valueOf(cardToPlay[2]), Card.Rank.valueOf(cardToPlay[0]));
+        return (playableCards & 1L << card.getOrdinal()) != 0 ? card : null;
+    }
+
+    /**
+     * Lists the cards that the user can play, as worked out by the last call to shouldDrawCard().
+     */
+    private void printPlayableCards() {
+        out.println("\nThe cards that you can play are: ");
+        for (long cards = playableCards; cards != 0; cards &= cards - 1) {
+            Card card = Hand.firstCard(cards);
+            out.println(card.getRank() + " of " + card.getSuit());
+        }
+    }
+
+    /**
+     * Checks if the user inputted card is valid.
+     *
+     * @param cardToPlay The user's input, split into words
+     * @return Whether or not the given card is valid.
+     */
+    private boolean invalidCardInput(String[] cardToPlay) {
+        if (cardToPlay.length != 3) {
+            return true;
+        }
+
+        try {
+            Card.Rank.valueOf(cardToPlay[0]);
+            Card.Suit.valueOf(cardToPlay[2]);
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+        return false;
+    }
+}
@@ -1,16 +1,434 @@
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+
 /**
  * Driver class for Crazy 8's.
  */
 public class Main {
 
     /**
-     * Driver method for Crazy 8's.
+     * Driver method for Crazy 8's. Run with no arguments to play against the bots, with
+     * "simulate GAMES PLAYERS [SEED]" to have bots play each other without any output, with
+     * "tournament GAMES PLAYERS [SEED]" to spread the games across every core, with "batch GAMES
+     * PLAYERS [SEED]" to play the same games as "simulate" between greedy bots many at a time, or with
+     * "replay GAME_SEED PLAYERS" to watch a single bot game again, or with "watch PLAYERS [GAMES] [SEED]"
+     * to watch bots play in real time, or with "match MATCHES PLAYERS [TARGET]
+     * [SEED]" to have bots play matches of several rounds scored by the cards left in their hands, or
+     * with "tune GENERATIONS GAMES PLAYERS [FILE] [SEED]" to tune the weights of the heuristic bot by
+     * self-play on every core and save them to FILE, which is heuristic.properties by default. Run with
+     * "sprt CANDIDATE BASELINE PLAYERS [ELO0] [ELO1] [SEED]" to test whether one strategy is stronger than
+     * another, stopping as soon as the answer is clear. Add "--reshuffle" to any of these to
+     * shuffle the discard pile back into the draw pile when it runs out, instead of ending in a tie, and
+     * add "--metrics" to "simulate" or "tournament" to print statistics about the games and the time
+     * the strategies took to move. Add "--log FILE" to "simulate" to record every event of every game
+     * to a binary log, which "decode FILE" prints. Add "--store FILE" to "simulate" or "tournament" to
+     * append the result of every game to a columnar store, which "query FILE [PLAYERS]" sums up. Run
+     * with "serve [PORT]" to host games for telnet clients.
+     *
+     * PLAYERS is either a number of greedy bots, or a comma separated list of registered strategy
+     * names with one name per seat, such as "greedy,greedy,greedy".
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        boolean isReshuffling = arguments.remove("--reshuffle");
+        GameMetrics metrics = arguments.remove("--metrics") ? new GameMetrics() : null;
+        String logFile = null;
+        int logIndex = arguments.indexOf("--log");
+        if (logIndex >= 0 && logIndex + 1 < arguments.size()) {
+            logFile = arguments.remove(logIndex + 1);
+            arguments.remove(logIndex);
+        }
+        String storeFile = null;
+        int storeIndex = arguments.indexOf("--store");
+        if (storeIndex >= 0 && storeIndex + 1 < arguments.size()) {
+            storeFile = arguments.remove(storeIndex + 1);
+            arguments.remove(storeIndex);
+        }
+        args = arguments.toArray(new String[0]);
+
+        if (args.length > 0 && args[0].equals("simulate")) {
+            simulate(args, isReshuffling, metrics, logFile, storeFile);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("decode")) {
+            decode(args[1]);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("query")) {
+            query(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(args, isReshuffling);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("tournament")) {
+            tournament(args, isReshuffling, metrics, storeFile);
+            return;
+        }
+        if (args.length > 2 && args[0].equals("sprt")) {
+            sprt(args, isReshuffling);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("tune")) {
+            tune(args, isReshuffling);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("batch")) {
+            batch(args, isReshuffling);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("match")) {
+            match(args, isReshuffling);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("replay")) {
+            replay(args, isReshuffling);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("watch")) {
+            watch(args, isReshuffling);
+            return;
+        }
 
         GameEngine gameEngine = new GameEngine();
+        gameEngine.setReshufflingDiscardPile(isReshuffling);
         gameEngine.playGame();
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Runs a batch of headless games and prints the results along with the throughput.
+     *
+     * @param args The command line arguments, in the format "simulate GAMES PLAYERS [SEED]".
+     * @param isReshuffling Whether the discard pile is reshuffled when the draw pile runs out.
+     * @param metrics The metrics to record and print, or null for none.
+     * @param logFile The file that every event is logged to, or null for none.
+     * @param storeFile The store that every game's result is appended to, or null for none.
+     * @throws IOException If the log file or the store cannot be opened.
+     */
+    private static void simulate(String[] args, boolean isReshuffling, GameMetrics metrics, String logFile,
+                                 String storeFile) throws IOException {
+        int numberOfGames = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        List<String> strategyNames = parseSeats(args.length > 2 ? args[2] : "4");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
+
+        System.out.println("Seed: " + seed);
+        GameEngine gameEngine = new GameEngine(seed);
+        gameEngine.setReshufflingDiscardPile(isReshuffling);
+        gameEngine.setMetrics(metrics);
+        GameEventLog eventLog = logFile == null ? null : new GameEventLog(new FileOutputStream(logFile));
+        gameEngine.setEventLog(eventLog);
+        GameResultStore resultStore = storeFile == null ? null : new GameResultStore(Paths.get(storeFile));
+        gameEngine.setResultStore(resultStore);
+        long startTime = System.nanoTime();
+        SimulationResults results = gameEngine.simulateGames(numberOfGames, strategyNames);
+        long elapsedTime = System.nanoTime() - startTime;
+        if (eventLog != null) {
+            eventLog.close();
+        }
+        if (resultStore != null) {
+            resultStore.close();
+        }
+
+        System.out.println(results);
+        System.out.printf("%.0f games/sec%n", numberOfGames / (elapsedTime / 1e9));
+        if (metrics != null) {
+            System.out.println(metrics);
+            printOpeningCache();
+        }
+    }
+
+    /**
+     * Runs the same tournament with 1, 2, 4, ... threads up to the number of cores and prints the
+     * throughput for each thread count.
+     *
+     * @param args The command line arguments, in the format "tournament GAMES PLAYERS [SEED]".
+     * @param isReshuffling Whether the discard pile is reshuffled when the draw pile runs out.
+     * @param metrics The metrics to record and print for the run with the most threads, or null for none.
+     * @param storeFile The store that the results of the run with the most threads are appended to, or
+     *                  null for none.
+     * @throws IOException If the store cannot be opened.
+     */
+    private static void tournament(String[] args, boolean isReshuffling, GameMetrics metrics, String storeFile)
+            throws IOException {
+        long numberOfGames = args.length > 1 ? Long.parseLong(args[1]) : 1000000;
+        List<String> strategyNames = parseSeats(args.length > 2 ? args[2] : "4");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Seed: " + seed);
+        GameResultStore resultStore = storeFile == null ? null : new GameResultStore(Paths.get(storeFile));
+        SimulationResults results = null;
+        int threads = 1;
+        while (true) {
+            Tournament tournament = new Tournament(threads, seed);
+            tournament.setReshufflingDiscardPile(isReshuffling);
+            if (metrics != null) {
+                metrics.reset();
+                tournament.setMetrics(metrics);
+            }
+            tournament.setResultStore(threads == cores ? resultStore : null);
+            results = tournament.run(numberOfGames, strategyNames);
+            System.out.printf("%d thread(s): %.0f games/sec%n", threads, tournament.getGamesPerSecond());
+            if (threads == cores) {
+                break;
+            }
+            threads = Math.min(threads * 2, cores);
+        }
+        if (resultStore != null) {
+            resultStore.close();
+        }
+        System.out.println(results);
+        if (metrics != null) {
+            System.out.println(metrics);
+            printOpeningCache();
+        }
+    }
+
+    /**
+     * Sums up the games in a result store and prints the totals.
+     *
+     * @param args The command line arguments, in the format "query FILE [PLAYERS]", where PLAYERS only
+     *             counts the games with that many players.
+     * @throws IOException If the store cannot be read.
+     */
+    private static void query(String[] args) throws IOException {
+        GameResultQuery query = new GameResultQuery(args.length > 2 ? Integer.parseInt(args[2]) : 0);
+        long startTime = System.nanoTime();
+        query.scan(Paths.get(args[1]));
+        long elapsedTime = System.nanoTime() - startTime;
+        System.out.println(query);
+        System.out.printf("Scanned in %.3f seconds%n", elapsedTime / 1e9);
+    }
+
+    /**
+     * Prints the hit rate of the opening cache shared by the "mcts-cached" bots, if any of them played.
+     */
+    private static void printOpeningCache() {
+        DealCache openingCache = MonteCarloPlayer.getSharedOpeningCache();
+        if (openingCache.getHits() + openingCache.getMisses() > 0) {
+            System.out.println(openingCache);
+        }
+    }
+
+    /**
+     * Plays headless games between greedy bots on the batch engine and prints the results along with
+     * the throughput. The results are the same as those of "simulate" with the same seed.
+     *
+     * @param args The command line arguments, in the format "batch GAMES PLAYERS [SEED]".
+     * @param isReshuffling Whether the discard pile is reshuffled when the draw pile runs out.
+     */
+    private static void batch(String[] args, boolean isReshuffling) {
+        long numberOfGames = args.length > 1 ? Long.parseLong(args[1]) : 1000000;
+        int numberOfPlayers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
+
+        System.out.println("Seed: " + seed);
+        BatchGameEngine batchEngine = new BatchGameEngine(seed);
+        batchEngine.setReshufflingDiscardPile(isReshuffling);
+        long startTime = System.nanoTime();
+        SimulationResults results = batchEngine.simulateGames(numberOfGames, numberOfPlayers);
+        long elapsedTime = System.nanoTime() - startTime;
+
+        System.out.println(results);
+        System.out.printf("%.0f games/sec%n", numberOfGames / (elapsedTime / 1e9));
+    }
+
+    /**
+     * Plays a batch of headless matches and prints the results along with the throughput.
+     *
+     * @param args The command line arguments, in the format "match MATCHES PLAYERS [TARGET] [SEED]".
+     * @param isReshuffling Whether the discard pile is reshuffled when the draw pile runs out.
+     */
+    private static void match(String[] args, boolean isReshuffling) {
+        int numberOfMatches = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        List<String> strategyNames = parseSeats(args.length > 2 ? args[2] : "4");
+        int targetScore = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : new SplittableRandom().nextLong();
+
+        System.out.println("Seed: " + seed);
+        GameEngine gameEngine = new GameEngine(seed);
+        gameEngine.setReshufflingDiscardPile(isReshuffling);
+        long startTime = System.nanoTime();
+        SimulationResults results = gameEngine.simulateMatches(numberOfMatches, strategyNames, targetScore);
+        long elapsedTime = System.nanoTime() - startTime;
+
+        System.out.println(results);
+        System.out.printf("%.0f matches/sec%n", numberOfMatches / (elapsedTime / 1e9));
+    }
+
+    /**
+     * Runs a sequential probability ratio test between two strategies and prints the outcome.
+     *
+     * @param args The command line arguments, in the format "sprt CANDIDATE BASELINE PLAYERS [ELO0] [ELO1] [SEED]".
+     * @param isReshuffling Whether the discard pile is reshuffled when the draw pile runs out.
+     */
+    private static void sprt(String[] args, boolean isReshuffling) {
+        int numberOfPlayers = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        double elo0 = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+        double elo1 = args.length > 5 ? Double.parseDouble(args[5]) : 5;
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : new SplittableRandom().nextLong();
+
+        System.out.println("Seed: " + seed);
+        SprtEvaluation evaluation = new SprtEvaluation(args[1], args[2], numberOfPlayers, elo0, elo1, seed);
+        evaluation.setReshufflingDiscardPile(isReshuffling);
+        long startTime = System.nanoTime();
+        evaluation.run(10_000_000);
+        long elapsedTime = System.nanoTime() - startTime;
+        System.out.println(evaluation);
+        System.out.printf("Decided in %.1f seconds%n", elapsedTime / 1e9);
+    }
+
+    /**
+     * Tunes the weights of the heuristic bot, saves them, and prints how the tuned bot does against
+     * greedy bots.
+     *
+     * @param args The command line arguments, in the format "tune GENERATIONS GAMES PLAYERS [FILE] [SEED]".
+     * @param isReshuffling Whether the discard pile is reshuffled when the draw pile runs out.
+     * @throws IOException If the weights cannot be saved.
+     */
+    private static void tune(String[] args, boolean isReshuffling) throws IOException {
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int gamesPerCandidate = args.length > 2 ? Integer.parseInt(args[2]) : 12000;
+        int numberOfPlayers = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        String file = args.length > 4 ? args[4] : HeuristicParameters.DEFAULT_FILE;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : new SplittableRandom().nextLong();
+
+        System.out.println("Seed: " + seed);
+        ParameterTuner tuner = new ParameterTuner(Runtime.getRuntime().availableProcessors(), seed);
+        tuner.setReshufflingDiscardPile(isReshuffling);
+        long startTime = System.nanoTime();
+        HeuristicParameters parameters = tuner.tune(generations, gamesPerCandidate, numberOfPlayers, System.out);
+        long elapsedTime = System.nanoTime() - startTime;
+        parameters.save(file, "HeuristicPlayer weights for " + numberOfPlayers + " players, tuned with seed " + seed);
+
+        System.out.println("Tuned weights: " + parameters);
+        System.out.printf("Tuned in %.1f seconds and saved to %s%n", elapsedTime / 1e9, file);
+        int games = 30 * gamesPerCandidate;
+        System.out.printf("Win rate against greedy bots: %.2f%% tuned, %.2f%% with the greedy weights, over %d games%n",
+                          100 * tuner.evaluateAgainstGreedy(parameters, games, numberOfPlayers),
+                          100 * tuner.evaluateAgainstGreedy(HeuristicParameters.GREEDY, games, numberOfPlayers), games);
+    }
+
+    /**
+     * Replays a single bot game from its seed, printing every action.
+     *
+     * @param args The command line arguments, in the format "replay GAME_SEED PLAYERS".
+     * @param isReshuffling Whether the discard pile is reshuffled when the draw pile runs out.
+     */
+    private static void replay(String[] args, boolean isReshuffling) {
+        long gameSeed = Long.parseLong(args[1]);
+        List<String> strategyNames = parseSeats(args.length > 2 ? args[2] : "4");
+
+        GameEngine gameEngine = new GameEngine();
+        gameEngine.setReshufflingDiscardPile(isReshuffling);
+        int winnerId = gameEngine.replayGame(gameSeed, strategyNames);
+        System.out.println(winnerId == 0 ? "\nThe game ended in a tie." : "\nThe game was won by player " + winnerId + ".");
+    }
+
+    /**
+     * Plays bot games in real time, pausing between turns as in a game against a person. The games are
+     * played all at once on a single scheduler thread, which runs each game's next turn once its pauses
+     * are over. The first game is narrated, and the end of every game is reported.
+     *
+     * @param args The command line arguments, in the format "watch PLAYERS [GAMES] [SEED]".
+     * @param isReshuffling Whether the discard pile is reshuffled when the draw pile runs out.
+     * @throws InterruptedException If the main thread is interrupted.
+     */
+    private static void watch(String[] args, boolean isReshuffling) throws InterruptedException {
+        List<String> strategyNames = parseSeats(args.length > 1 ? args[1] : "4");
+        int numberOfGames = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
+
+        System.out.println("Seed: " + seed);
+        ScheduledExecutorService scheduler = RealTimePacer.newScheduler(1);
+        TurnPacer pacer = new RealTimePacer(scheduler);
+        PrintStream unwatched = new PrintStream(OutputStream.nullOutputStream());
+        CountDownLatch gamesOver = new CountDownLatch(numberOfGames);
+        SplittableRandom gameSeeds = new SplittableRandom(seed);
+        long startTime = System.nanoTime();
+        for (int game = 1; game <= numberOfGames; game++) {
+            int gameNumber = game;
+            GameEngine gameEngine = new GameEngine(gameSeeds.nextLong());
+            gameEngine.setReshufflingDiscardPile(isReshuffling);
+            gameEngine.playPacedBotGame(strategyNames, gameSeeds.nextLong(), pacer, game == 1 ? System.out : unwatched,
+                                        winnerId -> {
+                String outcome = winnerId == GameEngine.FAILED_GAME ? "it was stopped by an error."
+                               : winnerId == 0 ? "it ended in a tie." : "it was won by player " + winnerId + ".";
+                System.out.printf("%nGame %d is over after %.1f seconds: %s%n", gameNumber,
+                                  (System.nanoTime() - startTime) / 1e9, outcome);
+                gamesOver.countDown();
+            });
+        }
+        gamesOver.await();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Prints every event of a log written with "simulate --log FILE".
+     *
+     * @param logFile The log file.
+     * @throws IOException If the log cannot be read.
+     */
+    private static void decode(String logFile) throws IOException {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+        try (GameEventReader reader = new GameEventReader(new FileInputStream(logFile))) {
+            for (GameEvent event = reader.next(); event != null; event = reader.next()) {
+                if (event.getType() == GameEvent.Type.GAME_START) {
+                    out.println();
+                }
+                out.println(event);
+            }
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Hosts games for telnet clients until the process is stopped.
+     *
+     * @param args The command line arguments, in the format "serve [PORT]".
+     * @param isReshuffling Whether the discard pile is reshuffled when the draw pile runs out.
+     * @throws IOException If the port cannot be opened.
+     * @throws InterruptedException If the main thread is interrupted.
+     */
+    private static void serve(String[] args, boolean isReshuffling) throws IOException, InterruptedException {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8888;
+        GameServer server = new GameServer(port, isReshuffling);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Serving Crazy 8's on port " + server.getPort()
+                            + (server.isUsingVirtualThreads() ? " with virtual threads." : " with platform threads."));
+        server.awaitClose();
+    }
+
+    /**
+     * Parses the seats argument, which is either a number of greedy bots or a comma separated list of
+     * strategy names.
+     *
+     * @param seats The seats argument.
+     * @return The name of the strategy in each seat, in turn order.
+     */
+    private static List<String> parseSeats(String seats) {
+        if (seats.chars().allMatch(Character::isDigit)) {
+            return Collections.nCopies(Integer.parseInt(seats), StrategyRegistry.GREEDY);
+        }
+        return Arrays.asList(seats.split(","));
+    }
+
+}
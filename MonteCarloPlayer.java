@@ -0,0 +1,587 @@
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A bot that picks its moves with information set Monte Carlo tree search.
+ *
+ * Every iteration of the search guesses the cards that this player cannot see, walks down a single
+ * tree of moves shared by all of the guesses, adds one move to the tree, and plays the rest of the
+ * game out at random. The tree is stored in preallocated arrays and the playouts run on a reused
+ * GameState, so a search allocates nothing.
+ *
+ * The search stops after a fixed number of iterations, or earlier when its time budget runs out. After
+ * the bot's move, the part of the tree below that move is kept, and the next search starts from it
+ * when the moves the opponents made in between can be told apart.
+ *
+ * Near the end of a game, when few enough cards are left in the hands and the draw pile, the bot
+ * solves the game exactly instead. It guesses the hidden cards a number of times, has an EndgameSolver
+ * work out whether each of its moves wins, ties or loses against every guess, and plays the move with
+ * the best total. The solved positions go into a transposition table of the bot's own, which is emptied
+ * at the start of every game, so that the bot's moves do not depend on its earlier games or on other
+ * threads.
+ *
+ * A bot can also be given a DealCache of opening moves. When it is the first to play, it looks its
+ * hand and the first discard up in the cache, with the suits renamed by DealCanonicalizer, and only
+ * searches when no equivalent opening has been searched before.
+ */
+public class MonteCarloPlayer implements StateAwareStrategy {
+
+    /**
+     * Constants for the search.
+     */
+    private static final int DEFAULT_ITERATIONS = 1000;
+    private static final int DEFAULT_TREE_CAPACITY = 1 << 16;
+    private static final double EXPLORATION = 0.7;
+    private static final int MAXIMUM_MOVES = 64;
+    private static final int NONE = -1;
+    private static final int ENDGAME_GUESSES = 8;
+    private static final int ENDGAME_TABLE_BUCKETS = 1 << 16;
+    private static final DealCache SHARED_OPENING_CACHE = new DealCache(1 << 16);
+
+    /**
+     * The search tree, one array per node field. A node stands for a move, made by the player in
+     * nodePlayer, and its reward is counted from that player's point of view.
+     */
+    private final int[] nodeMove;
+    private final int[] nodePlayer;
+    private final int[] nodeParent;
+    private final int[] nodeFirstChild;
+    private final int[] nodeNextSibling;
+    private final int[] nodeVisits;
+    private final int[] nodeAvailability;
+    private final double[] nodeReward;
+    private int nodeCount;
+    private int root = NONE;
+
+    /**
+     * Class variables.
+     */
+    private final int maximumIterations;
+    private final long timeBudgetNanos;
+    private final long seed;
+    private SplittableRandom random;
+    private int playerId;
+    private int seat;
+    private List<Integer> opponentIds;
+    private Hand hand = new Hand();
+    private boolean hasObservedState;
+    private final GameState observedState = new GameState();
+    private final GameState stateAfterMove = new GameState();
+    private final GameState searchState = new GameState();
+    private final int[] legalMoves = new int[MAXIMUM_MOVES];
+    private final long[] legalMoveBits = new long[4];
+    private final long[] childMoveBits = new long[4];
+    private final TranspositionTable endgameTable = new TranspositionTable(ENDGAME_TABLE_BUCKETS);
+    private final EndgameSolver endgameSolver = new EndgameSolver(endgameTable);
+    private final int[] endgameScores = new int[MAXIMUM_MOVES];
+    private final DealCache openingCache;
+    private final int[] suitMap = new int[Card.NUMBER_OF_SUITS];
+    private double lastSearchValue;
+    private int chosenMove = NONE;
+
+    /**
+     * Creates a bot that runs 1000 iterations per move, with no time limit.
+     */
+    public MonteCarloPlayer() {
+        this(DEFAULT_ITERATIONS, 0, 0);
+    }
+
+    /**
+     * Creates a bot that runs 1000 iterations per move, with no time limit, and reuses the opening
+     * moves in the given cache.
+     *
+     * @param openingCache The cache of opening moves, which may be shared between bots
+     */
+    public MonteCarloPlayer(DealCache openingCache) {
+        this(DEFAULT_ITERATIONS, 0, 0, openingCache);
+    }
+
+    /**
+     * Creates a bot with the given search budget.
+     *
+     * @param maximumIterations The most iterations to run per move
+     * @param timeBudgetNanos The most time to search per move in nanoseconds, or 0 for no limit. A
+     *                        time limit makes the bot's moves depend on the speed of the machine.
+     * @param seed The seed that the bot's random numbers are drawn from
+     */
+    public MonteCarloPlayer(int maximumIterations, long timeBudgetNanos, long seed) {
+        this(maximumIterations, timeBudgetNanos, seed, null);
+    }
+
+    /**
+     * Creates a bot with the given search budget and cache of opening moves.
+     *
+     * @param maximumIterations The most iterations to run per move
+     * @param timeBudgetNanos The most time to search per move in nanoseconds, or 0 for no limit
+     * @param seed The seed that the bot's random numbers are drawn from
+     * @param openingCache The cache of opening moves, or null to search every opening. A cache shared
+     *                     between bots on several threads makes the bots' moves depend on timing.
+     */
+    public MonteCarloPlayer(int maximumIterations, long timeBudgetNanos, long seed, DealCache openingCache) {
+        this.openingCache = openingCache;
+        this.maximumIterations = maximumIterations;
+        this.timeBudgetNanos = timeBudgetNanos;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        nodeMove = new int[DEFAULT_TREE_CAPACITY];
+        nodePlayer = new int[DEFAULT_TREE_CAPACITY];
+        nodeParent = new int[DEFAULT_TREE_CAPACITY];
+        nodeFirstChild = new int[DEFAULT_TREE_CAPACITY];
+        nodeNextSibling = new int[DEFAULT_TREE_CAPACITY];
+        nodeVisits = new int[DEFAULT_TREE_CAPACITY];
+        nodeAvailability = new int[DEFAULT_TREE_CAPACITY];
+        nodeReward = new double[DEFAULT_TREE_CAPACITY];
+    }
+
+    /**
+     * Gets the cache of opening moves shared by every bot of the "mcts-cached" strategy.
+     *
+     * @return The shared cache
+     */
+    public static DealCache getSharedOpeningCache() {
+        return SHARED_OPENING_CACHE;
+    }
+
+    /**
+     * Gives the player their assigned id, as well as a list of the opponents' assigned ids.
+     *
+     * @param playerId The id for this player
+     * @param opponentIds A list of ids for this player's opponents
+     */
+    @Override
+    public void init(int playerId, List<Integer> opponentIds) {
+        this.playerId = playerId;
+        this.seat = playerId - 1;
+        this.opponentIds = opponentIds;
+    }
+
+    /**
+     * Called at the very beginning of the game to deal the player their initial cards. The bot's
+     * random numbers are reseeded from its hand and its endgame table is emptied, so that replaying a
+     * game replays the bot's moves.
+     *
+     * @param cards The initial list of cards dealt to this player
+     */
+    @Override
+    public void receiveInitialCards(List<Card> cards) {
+        this.hand.clear();
+        for (Card card : cards) {
+            this.hand.add(card);
+        }
+        random = new SplittableRandom(seed ^ hand.getMask());
+        endgameTable.clear();
+        hasObservedState = false;
+        root = NONE;
+    }
+
+    /**
+     * Takes a copy of the state at the start of this bot's turn, and moves the root of the search tree
+     * down to it if the tree from the last turn can be reused.
+     *
+     * @param state The state of the game
+     */
+    @Override
+    public void observeState(GameStateView state) {
+        int reusedRoot = hasObservedState ? findReusableRoot(state) : NONE;
+        state.copyInto(observedState);
+        hasObservedState = true;
+        if (reusedRoot == NONE || nodeCount > nodeMove.length / 4 * 3) {
+            nodeCount = 0;
+            root = newNode(NONE, NONE, (seat + observedState.getNumberOfPlayers() - 1) % observedState.getNumberOfPlayers());
+        } else {
+            root = reusedRoot;
+            nodeParent[root] = NONE;
+        }
+    }
+
+    /**
+     * Searches for this bot's move. The bot only draws when it has nothing that it can play.
+     *
+     * @param topPileCard The card currently at the top of the pile
+     * @param pileSuit The suit that the pile was changed to as the result of an "8" being played.
+     * @return whether or not the player wants to draw
+     */
+    @Override
+    public boolean shouldDrawCard(Card topPileCard, Card.Suit pileSuit) {
+        long playableCards = hand.getPlayableCards(topPileCard, pileSuit == null ? topPileCard.getSuit() : pileSuit);
+        if (playableCards == 0) {
+            chosenMove = GameState.DRAW;
+        } else if (!hasObservedState || Long.bitCount(playableCards) == 1 && (playableCards & Hand.EIGHTS) == 0) {
+            chosenMove = greedyMove(playableCards);
+        } else {
+            chosenMove = endgameSolver.canSolve(observedState) ? solveEndgame() : NONE;
+            if (chosenMove == NONE) {
+                chosenMove = openingCache != null && isOpening() ? searchOpening() : search();
+            }
+        }
+        if (hasObservedState) {
+            stateAfterMove.copyFrom(observedState);
+            stateAfterMove.apply(chosenMove);
+        }
+        return chosenMove == GameState.DRAW;
+    }
+
+    /**
+     * Called when this player has chosen to draw a card from the deck.
+     *
+     * @param drawnCard The card that this player has drawn
+     */
+    @Override
+    public void receiveCard(Card drawnCard) {
+        this.hand.add(drawnCard);
+    }
+
+    /**
+     * Plays the card chosen by the search.
+     *
+     * @return The card this player wishes to put on top of the pile
+     */
+    @Override
+    public Card playCard() {
+        Card card = Card.fromOrdinal(GameState.cardOf(chosenMove));
+        this.hand.remove(card);
+        return card;
+    }
+
+    /**
+     * Declares the suit chosen by the search along with the eight.
+     */
+    @Override
+    public Card.Suit declareSuit() {
+        return Card.suitFromOrdinal(GameState.suitOf(chosenMove));
+    }
+
+    /**
+     * Called when the game is being reset for the next round.
+     */
+    @Override
+    public void reset() {
+        this.hand.clear();
+        hasObservedState = false;
+        root = NONE;
+    }
+
+    /**
+     * Runs the search from the current root and picks the most visited legal move.
+     *
+     * @return The chosen move
+     */
+    private int search() {
+        long deadline = timeBudgetNanos > 0 ? System.nanoTime() + timeBudgetNanos : 0;
+        for (int iteration = 0; iteration < maximumIterations; iteration++) {
+            if (deadline != 0 && (iteration & 63) == 63 && System.nanoTime() >= deadline) {
+                break;
+            }
+            if (nodeCount + MAXIMUM_MOVES > nodeMove.length) {
+                break;
+            }
+            runIteration();
+        }
+
+        //The tree may hold moves from earlier guesses at this bot's hand, so only consider real moves.
+        int count = observedState.getLegalMoves(legalMoves);
+        int bestMove = legalMoves[0];
+        int bestVisits = -1;
+        lastSearchValue = 0;
+        for (int child = nodeFirstChild[root]; child != NONE; child = nodeNextSibling[child]) {
+            if (nodeVisits[child] > bestVisits && contains(legalMoves, count, nodeMove[child])) {
+                bestMove = nodeMove[child];
+                bestVisits = nodeVisits[child];
+                lastSearchValue = nodeReward[child] / nodeVisits[child];
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Checks whether no player has made a move yet, so that this bot is the first to play.
+     *
+     * @return True if only the first card is on the discard pile and every hand is still as dealt
+     */
+    private boolean isOpening() {
+        if (Long.bitCount(observedState.getDiscardPile()) != 1) {
+            return false;
+        }
+        for (int other = 0; other < observedState.getNumberOfPlayers(); other++) {
+            if (observedState.getHandSize(other) != hand.size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the opening move from the cache, or searches for it and stores it there.
+     *
+     * @return The chosen move
+     */
+    private int searchOpening() {
+        long key = DealCanonicalizer.canonicalize(hand.getMask(), observedState.getTopCard(),
+                                                  observedState.getNumberOfPlayers(), suitMap);
+        long entry = openingCache.get(key);
+        if (entry != DealCache.MISS) {
+            return DealCanonicalizer.toActualMove(DealCache.moveOf(entry), suitMap);
+        }
+        int move = search();
+        openingCache.put(key, DealCanonicalizer.toCanonicalMove(move, suitMap), (float) lastSearchValue);
+        return move;
+    }
+
+    /**
+     * Solves the end of the game against a number of guesses at the hidden cards, and picks the move
+     * with the best total over them, counting a win as 1, a tie as 0 and a loss as -1.
+     *
+     * @return The chosen move, or NONE if the solver gave up on any of the guesses
+     */
+    private int solveEndgame() {
+        int count = observedState.getLegalMoves(legalMoves);
+        for (int i = 0; i < count; i++) {
+            endgameScores[i] = 0;
+        }
+        endgameSolver.newSearch();
+        for (int guess = 0; guess < ENDGAME_GUESSES; guess++) {
+            searchState.copyFrom(observedState);
+            searchState.determinize(seat, random);
+            for (int i = 0; i < count; i++) {
+                int value = endgameSolver.evaluate(searchState, legalMoves[i]);
+                if (value == EndgameSolver.UNKNOWN) {
+                    return NONE;
+                }
+                endgameScores[i] += value;
+            }
+        }
+
+        int bestMove = 0;
+        for (int i = 1; i < count; i++) {
+            if (endgameScores[i] > endgameScores[bestMove]) {
+                bestMove = i;
+            }
+        }
+        return legalMoves[bestMove];
+    }
+
+    /**
+     * Runs one iteration of the search: guess the hidden cards, select down the tree, expand one
+     * node, play out the rest of the game and record the result along the path.
+     */
+    private void runIteration() {
+        searchState.copyFrom(observedState);
+        searchState.determinize(seat, random);
+
+        int node = root;
+        while (!searchState.isOver()) {
+            int count = searchState.getLegalMoves(legalMoves);
+            clearBits(legalMoveBits);
+            clearBits(childMoveBits);
+            for (int i = 0; i < count; i++) {
+                setBit(legalMoveBits, legalMoves[i]);
+            }
+
+            //Every child that could have been chosen in this guess becomes available once more.
+            int bestChild = NONE;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            int availableChildren = 0;
+            for (int child = nodeFirstChild[node]; child != NONE; child = nodeNextSibling[child]) {
+                if (!hasBit(legalMoveBits, nodeMove[child])) {
+                    continue;
+                }
+                availableChildren++;
+                setBit(childMoveBits, nodeMove[child]);
+                nodeAvailability[child]++;
+                double value = nodeReward[child] / nodeVisits[child]
+                        + EXPLORATION * Math.sqrt(Math.log(nodeAvailability[child]) / nodeVisits[child]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestChild = child;
+                }
+            }
+
+            if (availableChildren < count) {
+                int move = randomUntriedMove(count, count - availableChildren);
+                int child = newNode(node, move, searchState.getCurrentPlayer());
+                searchState.apply(move);
+                node = child;
+                break;
+            }
+            searchState.apply(nodeMove[bestChild]);
+            node = bestChild;
+        }
+
+        playOut(searchState);
+
+        int winner = searchState.getWinner();
+        double tieReward = 1.0 / searchState.getNumberOfPlayers();
+        for (int current = node; current != NONE; current = nodeParent[current]) {
+            nodeVisits[current]++;
+            if (winner == GameState.NO_WINNER) {
+                nodeReward[current] += tieReward;
+            } else if (winner == nodePlayer[current]) {
+                nodeReward[current] += 1;
+            }
+        }
+    }
+
+    /**
+     * Picks one of the legal moves that does not have a child node yet.
+     *
+     * @param count The number of legal moves in legalMoves
+     * @param untriedCount The number of those moves without a child node
+     * @return The untried move
+     */
+    private int randomUntriedMove(int count, int untriedCount) {
+        int skip = random.nextInt(untriedCount);
+        for (int i = 0; i < count; i++) {
+            if (!hasBit(childMoveBits, legalMoves[i]) && skip-- == 0) {
+                return legalMoves[i];
+            }
+        }
+        throw new IllegalStateException("No untried move was found");
+    }
+
+    /**
+     * Plays a game out to the end. Each player plays a random card that is not an eight when they have
+     * one, and otherwise a random eight, declaring the suit they have the most of.
+     *
+     * @param state The state to play out, which is changed in place
+     */
+    private void playOut(GameState state) {
+        while (!state.isOver()) {
+            long playableCards = state.getPlayableCards();
+            if (playableCards == 0) {
+                state.apply(GameState.DRAW);
+                continue;
+            }
+            long commonCards = playableCards & ~Hand.EIGHTS;
+            long choices = commonCards != 0 ? commonCards : playableCards;
+            for (int skip = random.nextInt(Long.bitCount(choices)); skip > 0; skip--) {
+                choices &= choices - 1;
+            }
+            int card = Long.numberOfTrailingZeros(choices);
+            int suit = Card.suitOf(card);
+            if (Card.rankOf(card) == Card.EIGHT) {
+                suit = Hand.mostCommonSuit(state.getHand(state.getCurrentPlayer()) & ~(1L << card));
+            }
+            state.apply(GameState.play(card, suit));
+        }
+    }
+
+    /**
+     * Picks a move the way the greedy Player does, for when there is nothing to search.
+     *
+     * @param playableCards The mask of the playable cards in this bot's hand
+     * @return The move
+     */
+    private int greedyMove(long playableCards) {
+        long commonCards = playableCards & ~Hand.EIGHTS;
+        int card = Long.numberOfTrailingZeros(commonCards != 0 ? commonCards : playableCards);
+        int suit = Card.suitOf(card);
+        if (Card.rankOf(card) == Card.EIGHT) {
+            suit = Hand.mostCommonSuit(hand.getMask() & ~(1L << card));
+        }
+        return GameState.play(card, suit);
+    }
+
+    /**
+     * Finds the node below the last move made by this bot that matches the moves made by the opponents
+     * since then. The opponents' moves are worked out from the change in the state: an opponent whose
+     * hand grew drew a card, and an opponent whose hand shrank played one of the new cards in the
+     * discard pile. When more than one opponent played, the order of their cards is unknown and the
+     * tree cannot be reused.
+     *
+     * @param state The state at the start of this bot's turn
+     * @return The node to search from, or NONE if the tree cannot be reused
+     */
+    private int findReusableRoot(GameStateView state) {
+        if (root == NONE) {
+            return NONE;
+        }
+        int node = findChild(root, chosenMove);
+        long playedCards = state.getDiscardPile() & ~stateAfterMove.getDiscardPile();
+        if (node == NONE || Long.bitCount(playedCards) > 1 || state.getNumberOfPlayers() != stateAfterMove.getNumberOfPlayers()) {
+            return NONE;
+        }
+
+        int numberOfPlayers = state.getNumberOfPlayers();
+        for (int offset = 1; offset < numberOfPlayers && node != NONE; offset++) {
+            int opponent = (seat + offset) % numberOfPlayers;
+            int change = state.getHandSize(opponent) - stateAfterMove.getHandSize(opponent);
+            int move;
+            if (change == 1) {
+                move = GameState.DRAW;
+            } else if (change == -1 && playedCards != 0) {
+                int card = Long.numberOfTrailingZeros(playedCards);
+                move = GameState.play(card, Card.rankOf(card) == Card.EIGHT ? state.getCurrentSuit() : Card.suitOf(card));
+            } else {
+                return NONE;
+            }
+            node = findChild(node, move);
+        }
+        return node;
+    }
+
+    /**
+     * Finds the child of a node for a move.
+     *
+     * @param node The parent node
+     * @param move The move
+     * @return The child, or NONE if the move has not been added below the node
+     */
+    private int findChild(int node, int move) {
+        for (int child = nodeFirstChild[node]; child != NONE; child = nodeNextSibling[child]) {
+            if (nodeMove[child] == move) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Adds a node to the tree.
+     *
+     * @param parent The parent of the node, or NONE for the root
+     * @param move The move that the node stands for
+     * @param player The seat of the player making the move
+     * @return The new node
+     */
+    private int newNode(int parent, int move, int player) {
+        int node = nodeCount++;
+        nodeMove[node] = move;
+        nodePlayer[node] = player;
+        nodeParent[node] = parent;
+        nodeFirstChild[node] = NONE;
+        nodeVisits[node] = 0;
+        nodeAvailability[node] = 0;
+        nodeReward[node] = 0;
+        if (parent != NONE) {
+            nodeNextSibling[node] = nodeFirstChild[parent];
+            nodeFirstChild[parent] = node;
+        } else {
+            nodeNextSibling[node] = NONE;
+        }
+        return node;
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void clearBits(long[] bits) {
+        bits[0] = 0;
+        bits[1] = 0;
+        bits[2] = 0;
+        bits[3] = 0;
+    }
+
+    private static void setBit(long[] bits, int move) {
+        bits[move >>> 6] |= 1L << move;
+    }
+
+    private static boolean hasBit(long[] bits, int move) {
+        return (bits[move >>> 6] & (1L << move)) != 0;
+    }
+}
@@ -0,0 +1,183 @@
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checks paced bot games on a VirtualClockPacer, so that the games are played turn by turn as the
+ * clock moves without waiting out any real pauses:
+ *
+ *     java PacedGameCheck [GAMES]
+ *
+ * For every game it checks that nothing is played until the clock moves, that each turn schedules
+ * the next one after the turn's pauses, that onGameOver is called exactly once with the same winner
+ * as the game played on the ZeroDelayPacer, and that no tasks are left over. It also checks that a
+ * turn that throws ends the game with FAILED_GAME instead of leaving it hanging. It prints every
+ * failed check and exits with a non-zero status if there were any.
+ */
+public class PacedGameCheck {
+
+    /**
+     * Constants for the checks.
+     */
+    private static final int DEFAULT_GAMES = 100;
+    private static final long CLOCK_STEP_MILLIS = 100;
+    private static final long MINIMUM_TURN_MILLIS = 1500;
+    private static final long MAXIMUM_CLOCK_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final long SEED = 42;
+    private static final String FAILING_STRATEGY = "failing";
+
+    /**
+     * A pacer that counts the tasks scheduled on a virtual clock.
+     */
+    private static class CountingPacer implements TurnPacer {
+        private final VirtualClockPacer clock;
+        private int scheduledTasks;
+        private long scheduledMillis;
+        private long shortestDelayMillis = Long.MAX_VALUE;
+
+        private CountingPacer(VirtualClockPacer clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public void schedule(long delayMillis, Runnable task) {
+            if (scheduledTasks > 0) {
+                shortestDelayMillis = Math.min(shortestDelayMillis, delayMillis);
+            }
+            scheduledTasks++;
+            scheduledMillis += delayMillis;
+            clock.schedule(delayMillis, task);
+        }
+    }
+
+    /**
+     * A bot that plays like the greedy bot until it has to play a card.
+     */
+    private static class FailingPlayer extends Player {
+        @Override
+        public Card playCard() {
+            throw new IllegalStateException("This bot fails on purpose");
+        }
+    }
+
+    private static final PrintStream UNWATCHED = new PrintStream(OutputStream.nullOutputStream());
+    private static int failedChecks;
+
+    /**
+     * Runs the checks and prints the results.
+     *
+     * @param args Optionally the number of games to check.
+     */
+    public static void main(String[] args) {
+        int numberOfGames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        long totalTurns = 0;
+        long totalClockMillis = 0;
+        for (int game = 0; game < numberOfGames; game++) {
+            int numberOfPlayers = 3 + game % 4;
+            long gameSeed = SEED + game;
+            List<String> strategyNames = Collections.nCopies(numberOfPlayers, StrategyRegistry.GREEDY);
+            CountingPacer pacer = new CountingPacer(new VirtualClockPacer());
+            checkGame(strategyNames, gameSeed, pacer, expectedWinnerOf(strategyNames, gameSeed));
+            totalTurns += pacer.scheduledTasks;
+            totalClockMillis += pacer.clock.getNowMillis();
+        }
+        System.out.printf("Played %d paced games of %.1f turns and %.1f virtual seconds on average%n",
+                          numberOfGames, (double) totalTurns / numberOfGames, totalClockMillis / 1e3 / numberOfGames);
+
+        checkFailingTurn();
+
+        if (failedChecks > 0) {
+            System.out.println(failedChecks + " checks failed");
+            System.exit(1);
+        }
+        System.out.println("Every check passed");
+    }
+
+    /**
+     * Plays a game on the ZeroDelayPacer, which runs every turn before playPacedBotGame() returns.
+     *
+     * @param strategyNames The registered name of the strategy in each seat, in turn order.
+     * @param gameSeed The seed of the game.
+     * @return The id of the winning player, or 0 for a tie.
+     */
+    private static int expectedWinnerOf(List<String> strategyNames, long gameSeed) {
+        List<Integer> winners = new ArrayList<>();
+        new GameEngine(SEED).playPacedBotGame(strategyNames, gameSeed, ZeroDelayPacer.INSTANCE, UNWATCHED, winners::add);
+        check(winners.size() == 1, "a game on the ZeroDelayPacer is over once playPacedBotGame() returns");
+        return winners.isEmpty() ? GameEngine.FAILED_GAME : winners.get(0);
+    }
+
+    /**
+     * Plays a game on the virtual clock, moving the clock a step at a time, and checks how the turns
+     * were scheduled.
+     *
+     * @param strategyNames The registered name of the strategy in each seat, in turn order.
+     * @param gameSeed The seed of the game.
+     * @param pacer The pacer on the virtual clock.
+     * @param expectedWinnerId The id of the player who won the same game on the ZeroDelayPacer.
+     */
+    private static void checkGame(List<String> strategyNames, long gameSeed, CountingPacer pacer, int expectedWinnerId) {
+        List<Integer> winners = new ArrayList<>();
+        GameEngine gameEngine = new GameEngine(SEED);
+        gameEngine.playPacedBotGame(strategyNames, gameSeed, pacer, UNWATCHED, winners::add);
+        check(pacer.scheduledTasks == 1 && pacer.clock.getPendingTasks() == 1 && winners.isEmpty(),
+              "a paced game only schedules its first turn until the clock moves");
+
+        int turnsBefore = pacer.scheduledTasks;
+        while (winners.isEmpty() && pacer.clock.getNowMillis() < MAXIMUM_CLOCK_MILLIS) {
+            pacer.clock.advance(CLOCK_STEP_MILLIS);
+            check(pacer.scheduledTasks >= turnsBefore, "the turn chain never goes backwards");
+            turnsBefore = pacer.scheduledTasks;
+        }
+
+        check(winners.size() == 1, "onGameOver is called exactly once, game seed " + gameSeed);
+        check(!winners.isEmpty() && winners.get(0) == expectedWinnerId,
+              "the paced game has the same winner as on the ZeroDelayPacer, game seed " + gameSeed);
+        check(pacer.scheduledTasks > strategyNames.size(), "the game took more than one round of turns");
+        check(pacer.shortestDelayMillis >= MINIMUM_TURN_MILLIS, "every turn waits for the pauses of the turn before it");
+        check(pacer.clock.getNowMillis() >= pacer.scheduledMillis, "the clock moved past every scheduled turn");
+        check(pacer.clock.getPendingTasks() == 0, "no tasks are left once the game is over");
+    }
+
+    /**
+     * Seats a bot that throws when it plays a card, and checks that the game ends with FAILED_GAME
+     * and that the error is reported.
+     */
+    private static void checkFailingTurn() {
+        StrategyRegistry.register(FAILING_STRATEGY, FailingPlayer::new);
+        List<String> strategyNames = List.of(FAILING_STRATEGY, StrategyRegistry.GREEDY, StrategyRegistry.GREEDY);
+        List<Integer> winners = new ArrayList<>();
+        VirtualClockPacer clock = new VirtualClockPacer();
+
+        PrintStream standardError = System.err;
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(errors, true));
+        try {
+            new GameEngine(SEED).playPacedBotGame(strategyNames, SEED, clock, UNWATCHED, winners::add);
+            clock.runUntilIdle();
+        } finally {
+            System.setErr(standardError);
+        }
+
+        check(winners.size() == 1 && winners.get(0) == GameEngine.FAILED_GAME,
+              "a turn that throws ends the game with FAILED_GAME");
+        check(errors.toString().contains("This bot fails on purpose"), "the exception of a failed turn is reported");
+        check(clock.getPendingTasks() == 0, "a failed game schedules no more turns");
+    }
+
+    /**
+     * Prints a check that failed.
+     *
+     * @param isPassed Whether the check passed.
+     * @param description What was checked.
+     */
+    private static void check(boolean isPassed, String description) {
+        if (!isPassed) {
+            failedChecks++;
+            System.out.println("Failed: " + description);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the weights of HeuristicPlayer by self-play, with the cross-entropy method: every generation
+ * draws a population of weights from a normal distribution, plays each of them against copies of the
+ * distribution's mean, and moves the distribution to the best few.
+ *
+ * Each candidate plays the same deals from every seat in turn, and every candidate of a generation
+ * is dealt the same games, so the differences between their win rates come from their weights rather
+ * than their cards. The candidates are spread across a fixed pool of worker threads. Every worker
+ * keeps one game engine and one set of bots, which are reused for every candidate it plays, and the
+ * results only depend on the seed, not on the number of threads.
+ */
+public class ParameterTuner {
+
+    /**
+     * Constants for the search.
+     */
+    private static final int POPULATION = 24;
+    private static final int ELITE = 6;
+    private static final double INITIAL_DEVIATION = 1.5;
+    private static final double MINIMUM_DEVIATION = 0.05;
+
+    /**
+     * The weights that tuning starts from: close to the greedy Player, but with eights held back by a
+     * weight that a few generations can change.
+     */
+    private static final double[] INITIAL_WEIGHTS = {-3, 0, 0, 0, 0, 0, 0};
+
+    /**
+     * The engine and bots of a worker thread.
+     */
+    private static class Worker {
+        private final GameEngine gameEngine = new GameEngine(0);
+        private final List<PlayerStrategy> strategies = new ArrayList<>();
+        private final HeuristicPlayer[] players = new HeuristicPlayer[GameState.MAXIMUM_PLAYERS];
+
+        private Worker() {
+            for (int i = 0; i < players.length; i++) {
+                players[i] = new HeuristicPlayer(HeuristicParameters.GREEDY);
+            }
+        }
+    }
+
+    /**
+     * Class variables.
+     */
+    private final int numberOfThreads;
+    private final long seed;
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+    private boolean isReshufflingDiscardPile = false;
+
+    public ParameterTuner(int numberOfThreads, long seed) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("A tuner needs at least one thread, got " + numberOfThreads);
+        }
+        this.numberOfThreads = numberOfThreads;
+        this.seed = seed;
+    }
+
+    public boolean isReshufflingDiscardPile() {
+        return isReshufflingDiscardPile;
+    }
+
+    /**
+     * Sets whether the tuning games shuffle the discard pile back into the draw pile when it runs out,
+     * rather than ending in a tie.
+     *
+     * @param isReshufflingDiscardPile True to reshuffle the discard pile.
+     */
+    public void setReshufflingDiscardPile(boolean isReshufflingDiscardPile) {
+        this.isReshufflingDiscardPile = isReshufflingDiscardPile;
+    }
+
+    /**
+     * Tunes the weights.
+     *
+     * @param generations The number of generations to run.
+     * @param gamesPerCandidate The number of games each candidate plays per generation, split evenly
+     *                          between the seats.
+     * @param numberOfPlayers The number of players at the table.
+     * @param progress Where a line is printed after every generation, or null for nowhere.
+     * @return The mean of the final distribution, which is the tuned set of weights.
+     */
+    public HeuristicParameters tune(int generations, int gamesPerCandidate, int numberOfPlayers, PrintStream progress) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int dimensions = HeuristicParameters.NAMES.length;
+        double[] mean = INITIAL_WEIGHTS.clone();
+        double[] deviation = new double[dimensions];
+        Arrays.fill(deviation, INITIAL_DEVIATION);
+
+        ExecutorService pool = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            for (int generation = 1; generation <= generations; generation++) {
+                HeuristicParameters opponent = new HeuristicParameters(mean);
+                HeuristicParameters[] population = new HeuristicParameters[POPULATION];
+                for (int i = 0; i < POPULATION; i++) {
+                    double[] weights = new double[dimensions];
+                    for (int d = 0; d < dimensions; d++) {
+                        weights[d] = mean[d] + deviation[d] * nextGaussian(random);
+                    }
+                    population[i] = new HeuristicParameters(weights);
+                }
+
+                double[] fitness = evaluate(pool, population, opponent, gamesPerCandidate, numberOfPlayers, random.nextLong());
+                Integer[] ranking = new Integer[POPULATION];
+                for (int i = 0; i < POPULATION; i++) {
+                    ranking[i] = i;
+                }
+                Arrays.sort(ranking, (a, b) -> Double.compare(fitness[b], fitness[a]));
+
+                //Refit the distribution to the elite, keeping a little spread so that it does not collapse.
+                for (int d = 0; d < dimensions; d++) {
+                    double sum = 0;
+                    for (int e = 0; e < ELITE; e++) {
+                        sum += population[ranking[e]].get(d);
+                    }
+                    double eliteMean = sum / ELITE;
+                    double squares = 0;
+                    for (int e = 0; e < ELITE; e++) {
+                        double difference = population[ranking[e]].get(d) - eliteMean;
+                        squares += difference * difference;
+                    }
+                    mean[d] = eliteMean;
+                    deviation[d] = Math.max(MINIMUM_DEVIATION, Math.sqrt(squares / ELITE));
+                }
+
+                if (progress != null) {
+                    progress.printf("Generation %d: best win rate %.2f%%, elite mean %.2f%%, against the mean of the last generation%n",
+                                    generation, 100 * fitness[ranking[0]], 100 * averageOf(fitness, ranking, ELITE));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new HeuristicParameters(mean);
+    }
+
+    /**
+     * Measures the win rate of a set of weights against greedy bots, over the same deals from every
+     * seat.
+     *
+     * @param parameters The weights.
+     * @param numberOfGames The number of games, split evenly between the seats.
+     * @param numberOfPlayers The number of players at the table.
+     * @return The fraction of the games won by the weights.
+     */
+    public double evaluateAgainstGreedy(HeuristicParameters parameters, int numberOfGames, int numberOfPlayers) {
+        ExecutorService pool = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            return evaluate(pool, new HeuristicParameters[] {parameters}, HeuristicParameters.GREEDY,
+                            numberOfGames, numberOfPlayers, seed)[0];
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays every candidate from every seat against copies of the opponent, one task per candidate and
+     * seat.
+     *
+     * @param pool The worker threads.
+     * @param candidates The weights to be measured.
+     * @param opponent The weights of every other seat.
+     * @param gamesPerCandidate The number of games each candidate plays, split evenly between the seats.
+     * @param numberOfPlayers The number of players at the table.
+     * @param dealSeed The seed of the deals, which are the same for every candidate and seat.
+     * @return The fraction of its games that each candidate won.
+     */
+    private double[] evaluate(ExecutorService pool, HeuristicParameters[] candidates, HeuristicParameters opponent,
+                              int gamesPerCandidate, int numberOfPlayers, long dealSeed) {
+        int gamesPerSeat = Math.max(1, gamesPerCandidate / numberOfPlayers);
+        List<Future<Long>> tasks = new ArrayList<>();
+        for (HeuristicParameters candidate : candidates) {
+            for (int seat = 0; seat < numberOfPlayers; seat++) {
+                int candidateSeat = seat;
+                tasks.add(pool.submit(() -> playSeat(candidate, candidateSeat, opponent, gamesPerSeat, numberOfPlayers, dealSeed)));
+            }
+        }
+
+        double[] fitness = new double[candidates.length];
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                fitness[i / numberOfPlayers] += tasks.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The tuning was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A tuning worker failed", e.getCause());
+        }
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] /= (double) gamesPerSeat * numberOfPlayers;
+        }
+        return fitness;
+    }
+
+    /**
+     * Plays a candidate from one seat on the calling worker's engine.
+     *
+     * @param candidate The weights of the candidate.
+     * @param candidateSeat The seat of the candidate, numbered from 0.
+     * @param opponent The weights of every other seat.
+     * @param numberOfGames The number of games to be played.
+     * @param numberOfPlayers The number of players at the table.
+     * @param dealSeed The seed of the deals.
+     * @return The number of games the candidate won.
+     */
+    private long playSeat(HeuristicParameters candidate, int candidateSeat, HeuristicParameters opponent,
+                          int numberOfGames, int numberOfPlayers, long dealSeed) {
+        Worker worker = workers.get();
+        worker.strategies.clear();
+        for (int seat = 0; seat < numberOfPlayers; seat++) {
+            worker.players[seat].setParameters(seat == candidateSeat ? candidate : opponent);
+            worker.strategies.add(worker.players[seat]);
+        }
+        worker.gameEngine.setReshufflingDiscardPile(isReshufflingDiscardPile);
+        SimulationResults results = worker.gameEngine.simulateSeededGames(numberOfGames, worker.strategies, dealSeed);
+        return results.getWins(candidateSeat + 1);
+    }
+
+    /**
+     * Draws a standard normal number with the Box-Muller transform.
+     *
+     * @param random The random number generator.
+     * @return The number.
+     */
+    private static double nextGaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    private static double averageOf(double[] values, Integer[] ranking, int count) {
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[ranking[i]];
+        }
+        return sum / count;
+    }
+}
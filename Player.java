@@ -10,10 +10,9 @@ public class Player implements PlayerStrategy {
      */
     private int score;
     private int playerId;
-    private List<Card> hand;
+    private Hand hand = new Hand();
     private List<Integer> opponentIds;
-    private Card.Rank currentRank;
-    private Card.Suit currentSuit;
+    private long playableMask;
 
     /**
      * Getters and Setters.
@@ -30,7 +29,7 @@ public class Player implements PlayerStrategy {
         return playerId;
     }
 
-    public List<Card> getHand() {
+    public Hand getHand() {
         return hand;
     }
 
@@ -57,7 +56,10 @@ public class Player implements PlayerStrategy {
      */
     @Override
     public void receiveInitialCards(List<Card> cards) {
-        this.hand = cards;
+        this.hand.clear();
+        for (Card card : cards) {
+            this.hand.add(card);
+        }
     }
 
     /**
@@ -75,21 +77,11 @@ public class Player implements PlayerStrategy {
      */
     @Override
     public boolean shouldDrawCard(Card topPileCard, Card.Suit pileSuit) {
-        currentRank = topPileCard.getRank();
-        currentSuit = topPileCard.getSuit();
-
-        if (pileSuit != null) {
-            currentSuit = pileSuit;
-        }
-        for (Card card : this.hand) {
-            boolean canDiscardCard = (card.getRank().equals(Card.Rank.EIGHT))
-                    || card.getRank().equals(currentRank) || card.getSuit().equals(currentSuit);
-
-            if (canDiscardCard) {
-                return false;
-            }
+        if (pileSuit == null) {
+            pileSuit = topPileCard.getSuit();
         }
-        return true;
+        playableMask = Hand.playableMask(topPileCard, pileSuit);
+        return (this.hand.getMask() & playableMask) == 0;
     }
 
     /**
@@ -115,19 +107,14 @@ public class Player implements PlayerStrategy {
 
         //try to play common card, else play an 8.
         //when the player plays a card, remove it from this hand.
-        for (Card card : this.hand) {
-            boolean isCommonCard = !(card.getRank().equals(Card.Rank.EIGHT))
-                    && (card.getRank().equals(currentRank) || card.getSuit().equals(currentSuit));
-
-            if (isCommonCard) {
-                this.hand.remove(card);
-                return card;
-            } else if (card.getRank().equals(Card.Rank.EIGHT)) {
-                this.hand.remove(card);
-                return card;
-            }
+        long playableCards = this.hand.getMask() & playableMask;
+        if (playableCards == 0) {
+            return null;
         }
-        return null;
+        long commonCards = playableCards & ~Hand.EIGHTS;
+        Card card = Hand.firstCard(commonCards != 0 ? commonCards : playableCards);
+        this.hand.remove(card);
+        return card;
     }
 
     /**
@@ -138,41 +125,7 @@ public class Player implements PlayerStrategy {
     public Card.Suit declareSuit() {
 
         //Declare the suit that the player has the most of.
-        Map<Card.Suit, Integer> mostCommonSuit = new HashMap<>();
-        Card.Suit suit;
-        mostCommonSuit.put(Card.Suit.DIAMONDS, 0);
-        mostCommonSuit.put(Card.Suit.HEARTS, 0);
-        mostCommonSuit.put(Card.Suit.SPADES, 0);
-        mostCommonSuit.put(Card.Suit.CLUBS, 0);
-
-        for (Card card : this.hand) {
-
-            if (card.getSuit().equals(Card.Suit.DIAMONDS)) {
-                suit = Card.Suit.DIAMONDS;
-                incrementSuitOccurrences(mostCommonSuit, suit);
-            } else if (card.getSuit().equals(Card.Suit.HEARTS)) {
-                suit = Card.Suit.HEARTS;
-                incrementSuitOccurrences(mostCommonSuit, suit);
-            } else if (card.getSuit().equals(Card.Suit.SPADES)) {
-                suit = Card.Suit.SPADES;
-                incrementSuitOccurrences(mostCommonSuit, suit);
-            } else {
-                suit = Card.Suit.CLUBS;
-                incrementSuitOccurrences(mostCommonSuit, suit);
-            }
-        }
-
-        //Return the most common suit in the player's hand
-        Card.Suit commonSuit = Card.Suit.DIAMONDS;
-        int suitOccurrences = 0;
-
-        for (Map.Entry<Card.Suit, Integer> entry : mostCommonSuit.entrySet()) {
-            if (entry.getValue() > suitOccurrences) {
-                commonSuit = entry.getKey();
-                suitOccurrences = entry.getValue();
-            }
-        }
-        return commonSuit;
+        return this.hand.mostCommonSuit();
     }
 
     /**
@@ -180,18 +133,6 @@ public class Player implements PlayerStrategy {
      */
     @Override
     public void reset() {
-        this.hand = new ArrayList<>();
-    }
-
-    /**
-     * Increments the occurrences of a suit in the given map.
-     *
-     * @param suitMap Map of suits.
-     * @param suit The suit to be counted.
-     */
-    private void incrementSuitOccurrences(Map<Card.Suit, Integer> suitMap, Card.Suit suit) {
-        int increment = suitMap.get(suit);
-        increment++;
-        suitMap.put(suit, increment);
+        this.hand.clear();
     }
 }
@@ -14,7 +14,8 @@ public interface PlayerStrategy {
     void init(int playerId, List<Integer> opponentIds);
 
     /**
-     * Called at the very beginning of the game to deal the player their initial cards.
+     * Called at the very beginning of the game to deal the player their initial cards. The engine
+     * reuses the list for the next round, so the cards have to be copied out of it to be kept.
      *
      * @param cards The initial list of cards dealt to this player
      */
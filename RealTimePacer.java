@@ -0,0 +1,63 @@
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces games in real time, for games that people watch or play.
+ *
+ * The delays are kept by a ScheduledExecutorService, which a whole server full of games can share.
+ * The default pacer shares one with a single daemon thread, which is plenty, because the scheduled
+ * tasks only hand the game back to whichever thread plays it.
+ */
+public class RealTimePacer implements TurnPacer {
+
+    /**
+     * The pacer shared by every game that is not given its own.
+     */
+    private static final RealTimePacer DEFAULT = new RealTimePacer(newScheduler(1));
+
+    /**
+     * Class variables.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a pacer that keeps its delays with the given scheduler.
+     *
+     * @param scheduler The scheduler that runs the tasks
+     */
+    public RealTimePacer(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Gets the pacer shared by every game that is not given its own.
+     *
+     * @return The default real time pacer
+     */
+    public static RealTimePacer getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a scheduler with the given number of daemon threads, which removes cancelled tasks
+     * straight away.
+     *
+     * @param threads The number of threads
+     * @return The scheduler
+     */
+    public static ScheduledExecutorService newScheduler(int threads) {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "turn-pacer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    @Override
+    public void schedule(long delayMillis, Runnable task) {
+        scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
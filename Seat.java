@@ -0,0 +1,64 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a seat at the table: the strategy playing from the seat, along with the score that the
+ * game engine keeps for it. The cards in the seat's hand are kept in the engine's GameState.
+ *
+ * The list that the seat's cards are dealt in is kept here and reused for every round.
+ */
+public class Seat {
+
+    /**
+     * Class variables.
+     */
+    private final int playerId;
+    private final PlayerStrategy strategy;
+    private final String strategyName;
+    private final boolean isUser;
+    private int score;
+    private final List<Card> dealtCards = new ArrayList<>();
+
+    public Seat(int playerId, PlayerStrategy strategy, String strategyName, boolean isUser) {
+        this.playerId = playerId;
+        this.strategy = strategy;
+        this.strategyName = strategyName;
+        this.isUser = isUser;
+    }
+
+    /**
+     * Getters and Setters.
+     */
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public PlayerStrategy getStrategy() {
+        return strategy;
+    }
+
+    public String getStrategyName() {
+        return strategyName;
+    }
+
+    /**
+     * Whether or not a human is playing from this seat.
+     *
+     * @return True for the user's seat, false for a bot's seat
+     */
+    public boolean isUser() {
+        return isUser;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public List<Card> getDealtCards() {
+        return dealtCards;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * A random number generator that produces exactly the same numbers as java.util.SplittableRandom
+ * created with the same seed, but that can be given a new seed instead of being thrown away.
+ *
+ * The game engine starts every game from the game's seed, so reseeding one generator keeps a long
+ * run of games from allocating a new generator per game, while every seeded game still shuffles the
+ * way it always has.
+ */
+public class SeedableRandom {
+
+    /**
+     * The gamma of a SplittableRandom created from a seed.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Class variables.
+     */
+    private long seed;
+
+    public SeedableRandom(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Restarts the generator, as if it had just been created with the given seed.
+     *
+     * @param seed The seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    public int nextInt() {
+        return mix32(nextSeed());
+    }
+
+    /**
+     * Gets a number from 0 up to but not including the bound, in the same way as
+     * SplittableRandom.nextInt(int).
+     *
+     * @param bound The number of possible values, which must be positive
+     * @return The number
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("The bound must be positive, got " + bound);
+        }
+        int r = nextInt();
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return r & m;
+        }
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextInt() >>> 1) {
+        }
+        return r;
+    }
+
+    private long nextSeed() {
+        return seed += GOLDEN_GAMMA;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+}
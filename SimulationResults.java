@@ -0,0 +1,129 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the aggregate win and tie statistics of a batch of simulated Crazy 8's games.
+ */
+public class SimulationResults {
+
+    /**
+     * Class variables.
+     */
+    private int numberOfPlayers;
+    private long gamesPlayed;
+    private long ties;
+    private long[] wins;
+    private List<String> strategyNames;
+
+    public SimulationResults(int numberOfPlayers) {
+        this.numberOfPlayers = numberOfPlayers;
+        this.wins = new long[numberOfPlayers + 1];
+    }
+
+    /**
+     * Creates empty results for a table where each seat is played by the named strategy.
+     *
+     * @param strategyNames The name of the strategy in each seat, in turn order.
+     */
+    public SimulationResults(List<String> strategyNames) {
+        this(strategyNames.size());
+        this.strategyNames = new ArrayList<>(strategyNames);
+    }
+
+    /**
+     * Getters.
+     */
+    public int getNumberOfPlayers() {
+        return numberOfPlayers;
+    }
+
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public long getTies() {
+        return ties;
+    }
+
+    /**
+     * Gets the name of the strategy that played from a seat.
+     *
+     * @param playerId The id of the player in the seat.
+     * @return The name of the strategy, or null if the strategies were not named.
+     */
+    public String getStrategyName(int playerId) {
+        return strategyNames == null ? null : strategyNames.get(playerId - 1);
+    }
+
+    /**
+     * Gets the number of games won by the player with the given id.
+     *
+     * @param playerId The id of the player.
+     * @return The number of games the player has won.
+     */
+    public long getWins(int playerId) {
+        return wins[playerId];
+    }
+
+    /**
+     * Gets the fraction of games won by the player with the given id.
+     *
+     * @param playerId The id of the player.
+     * @return The win rate of the player, or 0 if no games have been played.
+     */
+    public double getWinRate(int playerId) {
+        return gamesPlayed == 0 ? 0 : (double) wins[playerId] / gamesPlayed;
+    }
+
+    /**
+     * Records a game that was won by the player with the given id.
+     *
+     * @param playerId The id of the winning player.
+     */
+    public void recordWin(int playerId) {
+        wins[playerId]++;
+        gamesPlayed++;
+    }
+
+    /**
+     * Records a game that ended in a tie.
+     */
+    public void recordTie() {
+        ties++;
+        gamesPlayed++;
+    }
+
+    /**
+     * Adds the statistics of another batch of games played with the same number of players.
+     *
+     * @param other The results to be added to these results.
+     */
+    public void merge(SimulationResults other) {
+        if (other.numberOfPlayers != numberOfPlayers) {
+            throw new IllegalArgumentException("Cannot merge results of " + other.numberOfPlayers
+                                                + " player games into results of " + numberOfPlayers + " player games");
+        }
+        for (int playerId = 1; playerId <= numberOfPlayers; playerId++) {
+            wins[playerId] += other.wins[playerId];
+        }
+        ties += other.ties;
+        gamesPlayed += other.gamesPlayed;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("Games played: ").append(gamesPlayed).append('\n');
+        for (int playerId = 1; playerId <= numberOfPlayers; playerId++) {
+            summary.append("Player ").append(playerId);
+            if (strategyNames != null) {
+                summary.append(" (").append(getStrategyName(playerId)).append(")");
+            }
+            summary.append(" wins: ").append(wins[playerId])
+                    .append(String.format(" (%.2f%%)", 100 * getWinRate(playerId))).append('\n');
+        }
+        summary.append("Ties: ").append(ties)
+                .append(String.format(" (%.2f%%)", gamesPlayed == 0 ? 0 : 100.0 * ties / gamesPlayed));
+        return summary.toString();
+    }
+}
@@ -0,0 +1,314 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares a candidate strategy against a baseline strategy with a sequential probability ratio test,
+ * which stops as soon as the games played are enough to tell whether the candidate is stronger.
+ *
+ * The games are played in paired sets on the same deal. For every deal, the baseline plays one game
+ * in every seat. Then the candidate takes each seat in turn, with the baseline in the other seats.
+ * Each of these games is paired with the all-baseline game: the candidate's seat scores 1 if only the
+ * candidate won it, 0 if only the baseline won it, and 1/2 otherwise. The deal scores the average
+ * over its seats. Comparing the two strategies in the same seat, with the same cards, cancels out
+ * most of the luck of the deal and all of the advantage of sitting first. That is why far fewer games
+ * are needed than when the two are simply counted over independent games.
+ *
+ * The score is read as an Elo difference, the way a chess score with draws is. The test decides
+ * between the hypotheses that the candidate is elo0 or elo1 points stronger, with error rates alpha
+ * and beta. It uses the generalized SPRT: the log likelihood ratio comes from the normal approximation
+ * of the mean deal score, with the variance measured from the deals played so far.
+ */
+public class SprtEvaluation {
+
+    /**
+     * The outcomes of a test.
+     */
+    public enum Decision {
+        /** The candidate's strength is closer to elo0 than to elo1. */
+        H0,
+        /** The candidate's strength is closer to elo1 than to elo0. */
+        H1,
+        /** The deal limit was reached first. */
+        INCONCLUSIVE
+    }
+
+    /**
+     * The fewest deals the test plays before it trusts the measured variance.
+     */
+    private static final int MINIMUM_DEALS = 64;
+
+    /**
+     * Class variables.
+     */
+    private final String candidateName;
+    private final String baselineName;
+    private final int numberOfPlayers;
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+    private final long seed;
+    private long deals;
+    private long gamesPlayed;
+    private double scoreSum;
+    private double squaredScoreSum;
+    private double logLikelihoodRatio;
+    private Decision decision;
+    private boolean isReshufflingDiscardPile = false;
+
+    /**
+     * Creates a test with 5% error rates in both directions.
+     *
+     * @param candidateName The registered name of the candidate strategy
+     * @param baselineName The registered name of the baseline strategy
+     * @param numberOfPlayers The number of players at the table
+     * @param elo0 The Elo difference of the null hypothesis, often 0
+     * @param elo1 The Elo difference of the alternative hypothesis, which must be larger than elo0
+     * @param seed The seed that the deals are drawn from
+     */
+    public SprtEvaluation(String candidateName, String baselineName, int numberOfPlayers, double elo0, double elo1, long seed) {
+        this(candidateName, baselineName, numberOfPlayers, elo0, elo1, 0.05, 0.05, seed);
+    }
+
+    /**
+     * Creates a test.
+     *
+     * @param candidateName The registered name of the candidate strategy
+     * @param baselineName The registered name of the baseline strategy
+     * @param numberOfPlayers The number of players at the table
+     * @param elo0 The Elo difference of the null hypothesis, often 0
+     * @param elo1 The Elo difference of the alternative hypothesis, which must be larger than elo0
+     * @param alpha The chance of accepting H1 when H0 holds
+     * @param beta The chance of accepting H0 when H1 holds
+     * @param seed The seed that the deals are drawn from
+     */
+    public SprtEvaluation(String candidateName, String baselineName, int numberOfPlayers, double elo0, double elo1,
+                          double alpha, double beta, long seed) {
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("elo1 must be larger than elo0, got " + elo0 + " and " + elo1);
+        }
+        this.candidateName = candidateName;
+        this.baselineName = baselineName;
+        this.numberOfPlayers = numberOfPlayers;
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+        this.seed = seed;
+    }
+
+    /**
+     * Getters.
+     */
+    public long getDeals() {
+        return deals;
+    }
+
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public double getLogLikelihoodRatio() {
+        return logLikelihoodRatio;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    public Decision getDecision() {
+        return decision;
+    }
+
+    public boolean isReshufflingDiscardPile() {
+        return isReshufflingDiscardPile;
+    }
+
+    /**
+     * Sets whether the test's games shuffle the discard pile back into the draw pile when it runs out,
+     * rather than ending in a tie.
+     *
+     * @param isReshufflingDiscardPile True to reshuffle the discard pile
+     */
+    public void setReshufflingDiscardPile(boolean isReshufflingDiscardPile) {
+        this.isReshufflingDiscardPile = isReshufflingDiscardPile;
+    }
+
+    /**
+     * Gets the mean score of the candidate over the deals played.
+     *
+     * @return The score, from 0 to 1, where 1/2 means the strategies are even
+     */
+    public double getScore() {
+        return deals == 0 ? 0.5 : scoreSum / deals;
+    }
+
+    /**
+     * Gets the Elo difference that the candidate's score stands for.
+     *
+     * @return The Elo difference, positive when the candidate is stronger
+     */
+    public double getElo() {
+        return eloOf(getScore());
+    }
+
+    /**
+     * Gets the margin of the 95% confidence interval of the Elo difference.
+     *
+     * @return The margin, in Elo points
+     */
+    public double getEloErrorMargin() {
+        if (deals < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double margin = 1.96 * Math.sqrt(getVariance() / deals);
+        return (eloOf(Math.min(1, getScore() + margin)) - eloOf(Math.max(0, getScore() - margin))) / 2;
+    }
+
+    /**
+     * Plays deals until the test reaches a decision or the deal limit.
+     *
+     * @param maximumDeals The most deals to play
+     * @return The decision
+     */
+    public Decision run(long maximumDeals) {
+        //Every lineup is seated once on an engine of its own, and each deal is replayed on all of them.
+        List<PlayerStrategy> baselines = new ArrayList<>();
+        for (int seat = 0; seat < numberOfPlayers; seat++) {
+            baselines.add(StrategyRegistry.create(baselineName));
+        }
+        GameEngine baselineEngine = newSeatedEngine(baselines);
+        GameEngine[] candidateEngines = new GameEngine[numberOfPlayers];
+        for (int seat = 0; seat < numberOfPlayers; seat++) {
+            List<PlayerStrategy> lineup = new ArrayList<>(baselines);
+            lineup.set(seat, StrategyRegistry.create(candidateName));
+            candidateEngines[seat] = newSeatedEngine(lineup);
+        }
+        SplittableRandom dealSeeds = new SplittableRandom(seed);
+
+        deals = 0;
+        gamesPlayed = 0;
+        scoreSum = 0;
+        squaredScoreSum = 0;
+        logLikelihoodRatio = 0;
+        decision = Decision.INCONCLUSIVE;
+        while (deals < maximumDeals) {
+            long dealSeed = dealSeeds.nextLong();
+            int baselineWinnerId = playDeal(baselineEngine, dealSeed);
+
+            double dealScore = 0;
+            for (int seat = 0; seat < numberOfPlayers; seat++) {
+                int winnerId = playDeal(candidateEngines[seat], dealSeed);
+
+                boolean candidateWon = winnerId == seat + 1;
+                boolean baselineWon = baselineWinnerId == seat + 1;
+                dealScore += candidateWon == baselineWon ? 0.5 : candidateWon ? 1 : 0;
+            }
+            dealScore /= numberOfPlayers;
+            deals++;
+            scoreSum += dealScore;
+            squaredScoreSum += dealScore * dealScore;
+
+            if (deals >= MINIMUM_DEALS) {
+                logLikelihoodRatio = computeLogLikelihoodRatio();
+                if (logLikelihoodRatio >= upperBound) {
+                    decision = Decision.H1;
+                    break;
+                }
+                if (logLikelihoodRatio <= lowerBound) {
+                    decision = Decision.H0;
+                    break;
+                }
+            }
+        }
+        return decision;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s against %s over %d deals (%d games): %s%n"
+                             + "Score: %.4f, Elo: %+.1f +/- %.1f%n"
+                             + "LLR: %.3f (bounds %.3f, %.3f) for elo0 = %.1f, elo1 = %.1f",
+                             candidateName, baselineName, deals, gamesPlayed, describe(decision),
+                             getScore(), getElo(), getEloErrorMargin(),
+                             logLikelihoodRatio, lowerBound, upperBound, elo0, elo1);
+    }
+
+    /**
+     * Creates an engine with the given lineup seated for the whole test.
+     *
+     * @param lineup The strategy in each seat
+     * @return The engine
+     */
+    private GameEngine newSeatedEngine(List<PlayerStrategy> lineup) {
+        GameEngine gameEngine = new GameEngine(seed);
+        gameEngine.setReshufflingDiscardPile(isReshufflingDiscardPile);
+        gameEngine.seatStrategies(lineup);
+        return gameEngine;
+    }
+
+    /**
+     * Plays one game of a deal.
+     *
+     * @param gameEngine The engine the game is played on, with its lineup seated
+     * @param dealSeed The seed of the deal, which is the seed of every game of the deal
+     * @return The id of the winner, or 0 for a tie
+     */
+    private int playDeal(GameEngine gameEngine, long dealSeed) {
+        gamesPlayed++;
+        return gameEngine.playSeededGame(dealSeed);
+    }
+
+    /**
+     * Computes the log likelihood ratio of H1 against H0 from the normal approximation of the mean
+     * score.
+     *
+     * @return The log likelihood ratio
+     */
+    private double computeLogLikelihoodRatio() {
+        double score0 = scoreOf(elo0);
+        double score1 = scoreOf(elo1);
+        double variance = getVariance();
+        if (variance <= 0) {
+            //Every deal scored the same, which is as sure as the test gets.
+            double side = 2 * getScore() - score0 - score1;
+            return side == 0 ? 0 : side * Double.POSITIVE_INFINITY;
+        }
+        return deals * (score1 - score0) * (2 * getScore() - score0 - score1) / (2 * variance);
+    }
+
+    private double getVariance() {
+        double mean = getScore();
+        return squaredScoreSum / deals - mean * mean;
+    }
+
+    private static double scoreOf(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double eloOf(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return 0.0 - 400 * Math.log10(1 / score - 1);
+    }
+
+    private static String describe(Decision decision) {
+        switch (decision) {
+            case H1:
+                return "H1 accepted, the candidate is stronger";
+            case H0:
+                return "H0 accepted, the candidate is not stronger";
+            default:
+                return "no decision yet";
+        }
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * A strategy that wants to see the whole state of the game before each of its turns, such as a
+ * strategy that searches ahead.
+ */
+public interface StateAwareStrategy extends PlayerStrategy {
+
+    /**
+     * Called at the start of each of this player's turns, before shouldDrawCard().
+     *
+     * The view shows what this player can see at the table and is only valid until this method
+     * returns, so it has to be copied with copy() or copyInto() to be kept. The other players' hands
+     * can't be read from the view, and in a copy they and the draw pile are dealt out in a fixed
+     * order, so a strategy that plays the game forward first guesses them with
+     * GameState.determinize().
+     *
+     * @param state The state of the game
+     */
+    void observeState(GameStateView state);
+}
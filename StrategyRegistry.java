@@ -0,0 +1,92 @@
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Looks up bot strategies by name so that any PlayerStrategy implementation can be seated by the
+ * game engine.
+ *
+ * The built in strategies are registered here. Strategies on the class path are also picked up
+ * through ServiceLoader, under their simple class name, when they are listed in a
+ * META-INF/services/PlayerStrategy file. Other strategies can be added with register().
+ */
+public class StrategyRegistry {
+
+    /**
+     * The name of the strategy implemented by Player.
+     */
+    public static final String GREEDY = "greedy";
+
+    /**
+     * The name of the strategy implemented by MonteCarloPlayer.
+     */
+    public static final String MONTE_CARLO = "mcts";
+
+    /**
+     * The name of the strategy implemented by MonteCarloPlayer, with the opening moves of every bot
+     * kept in one shared DealCache.
+     */
+    public static final String MONTE_CARLO_CACHED = "mcts-cached";
+
+    /**
+     * The name of the strategy implemented by CardCountingPlayer.
+     */
+    public static final String CARD_COUNTING = "counting";
+
+    /**
+     * The name of the strategy implemented by HeuristicPlayer, with the weights tuned by ParameterTuner.
+     */
+    public static final String HEURISTIC = "heuristic";
+
+    private static final Map<String, Supplier<PlayerStrategy>> STRATEGIES = new LinkedHashMap<>();
+
+    static {
+        register(GREEDY, Player::new);
+        register(MONTE_CARLO, MonteCarloPlayer::new);
+        register(MONTE_CARLO_CACHED, () -> new MonteCarloPlayer(MonteCarloPlayer.getSharedOpeningCache()));
+        register(CARD_COUNTING, CardCountingPlayer::new);
+        register(HEURISTIC, HeuristicPlayer::new);
+        ServiceLoader.load(PlayerStrategy.class).stream()
+                .forEach(provider -> register(provider.type().getSimpleName(), provider::get));
+    }
+
+    private StrategyRegistry() {
+    }
+
+    /**
+     * Registers a strategy, replacing any strategy already registered under the same name.
+     *
+     * @param name The name the strategy is looked up by
+     * @param factory Creates a new instance of the strategy for every seat
+     */
+    public static synchronized void register(String name, Supplier<PlayerStrategy> factory) {
+        STRATEGIES.put(name, factory);
+    }
+
+    /**
+     * Creates a new instance of a registered strategy.
+     *
+     * @param name The name of the strategy
+     * @return A new, uninitialized instance of the strategy
+     */
+    public static synchronized PlayerStrategy create(String name) {
+        Supplier<PlayerStrategy> factory = STRATEGIES.get(name);
+        if (factory == null) {
+            throw new IllegalArgumentException("There is no strategy named " + name + ". Known strategies are "
+                                                + STRATEGIES.keySet());
+        }
+        return factory.get();
+    }
+
+    /**
+     * Gets the names of every registered strategy.
+     *
+     * @return The names, in the order that the strategies were registered
+     */
+    public static synchronized Set<String> getNames() {
+        return new LinkedHashSet<>(STRATEGIES.keySet());
+    }
+}
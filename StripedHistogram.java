@@ -0,0 +1,208 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative long values, such as latencies in nanoseconds or turns per game, that
+ * many threads can record into at once.
+ *
+ * Values are counted in buckets the way HdrHistogram does it: values below 64 get a bucket each, and
+ * every power of two above that is split into 32 buckets, so a value is always reported to within
+ * about 3% and the whole range of a long fits in under 2000 buckets.
+ *
+ * The counts are striped: each thread records into one of a few copies of the buckets, picked by its
+ * thread id, so threads playing games in parallel rarely write to the same cache lines. The stripes
+ * are only added up when the histogram is read.
+ */
+public class StripedHistogram {
+
+    /**
+     * Constants for the bucket layout.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_VALUES = SUB_BUCKETS * 2;
+    private static final int BUCKETS = EXACT_VALUES + (Long.SIZE - SUB_BUCKET_BITS - 2) * SUB_BUCKETS;
+    private static final int STRIPES = 8;
+    private static final int TOTALS_STRIDE = 8;
+
+    /**
+     * Class variables. The totals are spread a cache line apart, one per stripe.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+    private final AtomicLongArray totals = new AtomicLongArray(STRIPES * TOTALS_STRIDE);
+
+    /**
+     * Records a value.
+     *
+     * @param value The value, which must not be negative
+     */
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("A histogram cannot record the negative value " + value);
+        }
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        counts.incrementAndGet(stripe * BUCKETS + bucketOf(value));
+        totals.addAndGet(stripe * TOTALS_STRIDE, value);
+    }
+
+    /**
+     * Adds every value recorded by another histogram to this one.
+     *
+     * @param other The histogram to be added
+     */
+    public void merge(StripedHistogram other) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long count = other.getBucketCount(bucket);
+            if (count != 0) {
+                counts.addAndGet(bucket, count);
+            }
+        }
+        totals.addAndGet(0, other.getTotal());
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        for (int i = 0; i < totals.length(); i++) {
+            totals.set(i, 0);
+        }
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return The number of values
+     */
+    public long getCount() {
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            count += getBucketCount(bucket);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the sum of every value recorded.
+     *
+     * @return The sum of the values
+     */
+    public long getTotal() {
+        long total = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            total += totals.get(stripe * TOTALS_STRIDE);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the average of the values recorded.
+     *
+     * @return The mean, or 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getTotal() / count;
+    }
+
+    /**
+     * Gets the largest value recorded, to within the precision of its bucket.
+     *
+     * @return The largest value, or 0 if nothing has been recorded
+     */
+    public long getMax() {
+        for (int bucket = BUCKETS - 1; bucket >= 0; bucket--) {
+            if (getBucketCount(bucket) != 0) {
+                return highestValueOf(bucket);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the value that the given percentage of the recorded values are at or below, to within the
+     * precision of its bucket.
+     *
+     * @param percentile The percentage, from 0 to 100
+     * @return The value at the percentile, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] bucketCounts = new long[BUCKETS];
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            bucketCounts[bucket] = getBucketCount(bucket);
+            count += bucketCounts[bucket];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += bucketCounts[bucket];
+            if (seen >= rank) {
+                return highestValueOf(bucket);
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Summarizes the histogram on one line.
+     *
+     * @return The count, mean, median, 90th, 99th and 99.9th percentiles, and maximum
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d", getCount(), getMean(),
+                             getValueAtPercentile(50), getValueAtPercentile(90), getValueAtPercentile(99),
+                             getValueAtPercentile(99.9), getMax());
+    }
+
+    /**
+     * Adds up the count of a bucket over every stripe.
+     *
+     * @param bucket The bucket
+     * @return The number of values recorded in the bucket
+     */
+    private long getBucketCount(int bucket) {
+        long count = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            count += counts.get(stripe * BUCKETS + bucket);
+        }
+        return count;
+    }
+
+    /**
+     * Finds the bucket of a value. Above EXACT_VALUES, the value is shifted right until only its top
+     * SUB_BUCKET_BITS + 1 bits are left, and those bits pick the bucket within its power of two.
+     *
+     * @param value The value, which must not be negative
+     * @return The bucket
+     */
+    private static int bucketOf(long value) {
+        if (value < EXACT_VALUES) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+        return EXACT_VALUES + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Finds the largest value that falls into a bucket.
+     *
+     * @param bucket The bucket
+     * @return The largest value of the bucket
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < EXACT_VALUES) {
+            return bucket;
+        }
+        int shift = (bucket - EXACT_VALUES) / SUB_BUCKETS + 1;
+        long lowestValue = (long) (SUB_BUCKETS + (bucket - EXACT_VALUES) % SUB_BUCKETS) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+}
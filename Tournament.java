@@ -0,0 +1,185 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a large number of headless games split across a fixed pool of worker threads.
+ *
+ * Every worker owns its own game engine, deck and random number generator, so the workers share
+ * nothing while they play. Each worker keeps its own results, which are only merged once all of
+ * the workers are done. The workers' seeds are split off the tournament's seed in order, so the same
+ * seed and number of threads always produce the same results.
+ */
+public class Tournament {
+
+    /**
+     * Class variables.
+     */
+    private int numberOfThreads;
+    private long seed;
+    private long elapsedNanos;
+    private long gamesPlayed;
+    private boolean isReshufflingDiscardPile = false;
+    private GameMetrics metrics;
+    private GameResultStore resultStore;
+
+    public Tournament(int numberOfThreads) {
+        this(numberOfThreads, new SplittableRandom().nextLong());
+    }
+
+    public Tournament(int numberOfThreads, long seed) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("A tournament needs at least one thread, got " + numberOfThreads);
+        }
+        this.numberOfThreads = numberOfThreads;
+        this.seed = seed;
+    }
+
+    /**
+     * Getters.
+     */
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean isReshufflingDiscardPile() {
+        return isReshufflingDiscardPile;
+    }
+
+    /**
+     * Sets whether the workers' games shuffle the discard pile back into the draw pile when it runs out,
+     * rather than ending in a tie.
+     *
+     * @param isReshufflingDiscardPile True to reshuffle the discard pile.
+     */
+    public void setReshufflingDiscardPile(boolean isReshufflingDiscardPile) {
+        this.isReshufflingDiscardPile = isReshufflingDiscardPile;
+    }
+
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets where the workers record the statistics of their games. Every worker records into the same
+     * metrics, which are safe to share between threads.
+     *
+     * @param metrics The metrics to record into, or null to record nothing.
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public GameResultStore getResultStore() {
+        return resultStore;
+    }
+
+    /**
+     * Sets where the workers append the result of every game. Every worker appends to the same store,
+     * so the order of the records depends on how the workers' games interleave.
+     *
+     * @param resultStore The store to append to, or null to store nothing.
+     */
+    public void setResultStore(GameResultStore resultStore) {
+        this.resultStore = resultStore;
+    }
+
+    /**
+     * Gets how long the last call to run() took.
+     *
+     * @return The wall clock time of the last tournament, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Plays the given number of games, with the games split as evenly as possible between the workers.
+     *
+     * @param numberOfGames The total number of games to be played.
+     * @param numberOfPlayers The number of greedy bots seated at every table.
+     * @return The merged results of every worker.
+     */
+    public SimulationResults run(long numberOfGames, int numberOfPlayers) {
+        return run(numberOfGames, Collections.nCopies(numberOfPlayers, StrategyRegistry.GREEDY));
+    }
+
+    /**
+     * Plays the given number of games, with the games split as evenly as possible between the workers.
+     *
+     * @param numberOfGames The total number of games to be played.
+     * @param strategyNames The registered name of the strategy in each seat, in turn order.
+     * @return The merged results of every worker.
+     */
+    public SimulationResults run(long numberOfGames, List<String> strategyNames) {
+        ExecutorService workers = Executors.newFixedThreadPool(numberOfThreads);
+        List<Future<SimulationResults>> shards = new ArrayList<>();
+        SplittableRandom workerSeeds = new SplittableRandom(seed);
+        long startTime = System.nanoTime();
+
+        try {
+            for (int worker = 0; worker < numberOfThreads; worker++) {
+                long shardGames = numberOfGames / numberOfThreads
+                                    + (worker < numberOfGames % numberOfThreads ? 1 : 0);
+                long shardSeed = workerSeeds.split().nextLong();
+                shards.add(workers.submit(() -> playShard(shardGames, strategyNames, shardSeed)));
+            }
+
+            SimulationResults results = new SimulationResults(strategyNames);
+            for (Future<SimulationResults> shard : shards) {
+                results.merge(shard.get());
+            }
+            elapsedNanos = System.nanoTime() - startTime;
+            gamesPlayed = results.getGamesPlayed();
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The tournament was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A tournament worker failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one worker's share of the games on an engine owned by that worker.
+     *
+     * @param numberOfGames The number of games this worker plays.
+     * @param strategyNames The registered name of the strategy in each seat, in turn order.
+     * @param shardSeed The seed of this worker's engine.
+     * @return The results of this worker's games.
+     */
+    private SimulationResults playShard(long numberOfGames, List<String> strategyNames, long shardSeed) {
+        GameEngine gameEngine = new GameEngine(shardSeed);
+        gameEngine.setReshufflingDiscardPile(isReshufflingDiscardPile);
+        gameEngine.setMetrics(metrics);
+        gameEngine.setResultStore(resultStore);
+        SimulationResults results = new SimulationResults(strategyNames);
+        long gamesLeft = numberOfGames;
+        while (gamesLeft > 0) {
+            int batch = (int) Math.min(gamesLeft, Integer.MAX_VALUE);
+            results.merge(gameEngine.simulateGames(batch, strategyNames));
+            gamesLeft -= batch;
+        }
+        return results;
+    }
+
+    /**
+     * Gets the throughput of the last call to run().
+     *
+     * @return The number of games played per second.
+     */
+    public double getGamesPerSecond() {
+        return gamesPlayed / (elapsedNanos / 1e9);
+    }
+}
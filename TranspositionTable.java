@@ -0,0 +1,156 @@
+/**
+ * A fixed-size hash table of solved positions, keyed by their Zobrist hashes, that any number of
+ * threads may read and write at the same time without locks.
+ *
+ * Each entry is a single long of data, stored next to the hash XORed with that data. A reader only
+ * trusts an entry when the stored key XORed with the stored data gives back the hash it asked for, so
+ * an entry torn by two threads writing at once just reads as a miss. The table never allocates after
+ * it is created.
+ *
+ * The entries come in buckets of two. The first entry of a bucket keeps the position that took the
+ * most work to solve, unless it was stored by an earlier search, and the second entry is always
+ * replaced. This keeps the expensive results around while the cheap ones cycle through.
+ */
+public class TranspositionTable {
+
+    /**
+     * The kinds of bounds an entry can hold. An empty entry has no bound, so it never matches.
+     */
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    /**
+     * The layout of the data long: the value plus one, the bound, the best move, the work, and the
+     * search that stored the entry.
+     */
+    private static final int BOUND_SHIFT = 2;
+    private static final int MOVE_SHIFT = 4;
+    private static final int WORK_SHIFT = 12;
+    private static final int GENERATION_SHIFT = 18;
+    private static final int MAXIMUM_WORK = 63;
+
+    /**
+     * Class variables.
+     */
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private volatile int generation;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param buckets The number of buckets of two entries, which must be a power of two
+     */
+    public TranspositionTable(int buckets) {
+        if (buckets <= 0 || Integer.bitCount(buckets) != 1) {
+            throw new IllegalArgumentException("The number of buckets must be a power of two, got " + buckets);
+        }
+        this.keys = new long[buckets * 2];
+        this.data = new long[buckets * 2];
+        this.bucketMask = buckets - 1;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Marks the start of a new search, so that the entries stored by earlier searches may be replaced
+     * no matter how much work they took. Concurrent searches may miss each other's increments, which
+     * only delays the replacement.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param hash The Zobrist hash of the position
+     * @return The entry's data, or 0 if the position is not in the table
+     */
+    public long probe(long hash) {
+        int index = bucketOf(hash);
+        long first = data[index];
+        if ((keys[index] ^ first) == hash && first != 0) {
+            return first;
+        }
+        long second = data[index + 1];
+        if ((keys[index + 1] ^ second) == hash && second != 0) {
+            return second;
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a solved position.
+     *
+     * @param hash The Zobrist hash of the position
+     * @param value The value of the position, from -1 to 1
+     * @param bound Whether the value is EXACT, a LOWER_BOUND or an UPPER_BOUND
+     * @param move The best move found, which must fit in 8 bits
+     * @param nodes The number of nodes searched to solve the position
+     */
+    public void store(long hash, int value, int bound, int move, long nodes) {
+        int work = Math.min(MAXIMUM_WORK, 64 - Long.numberOfLeadingZeros(nodes));
+        int currentGeneration = generation;
+        long entry = (value + 1) | (long) bound << BOUND_SHIFT | (long) move << MOVE_SHIFT
+                | (long) work << WORK_SHIFT | (long) currentGeneration << GENERATION_SHIFT;
+
+        int index = bucketOf(hash);
+        long first = data[index];
+        boolean isSamePosition = (keys[index] ^ first) == hash;
+        if (isSamePosition || work >= workOf(first) || generationOf(first) != currentGeneration) {
+            data[index] = entry;
+            keys[index] = hash ^ entry;
+        } else {
+            data[index + 1] = entry;
+            keys[index + 1] = hash ^ entry;
+        }
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 0;
+            data[i] = 0;
+        }
+    }
+
+    /**
+     * Getters for the fields of an entry's data.
+     */
+    public static int valueOf(long entry) {
+        return (int) (entry & 3) - 1;
+    }
+
+    public static int boundOf(long entry) {
+        return (int) (entry >>> BOUND_SHIFT & 3);
+    }
+
+    public static int moveOf(long entry) {
+        return (int) (entry >>> MOVE_SHIFT & 0xFF);
+    }
+
+    private static int workOf(long entry) {
+        return (int) (entry >>> WORK_SHIFT & MAXIMUM_WORK);
+    }
+
+    private static int generationOf(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT & 0xFF);
+    }
+
+    /**
+     * Finds the first entry of a hash's bucket. The low bits of a Zobrist hash are as random as any.
+     *
+     * @param hash The hash
+     * @return The index of the bucket's first entry
+     */
+    private int bucketOf(long hash) {
+        return ((int) hash & bucketMask) << 1;
+    }
+}
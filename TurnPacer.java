@@ -0,0 +1,34 @@
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Decides how long a game waits between the actions that a human follows along with, such as one
+ * bot's turn and the next.
+ *
+ * A pacer runs tasks after a delay instead of making a thread sleep, so that a game can be played as
+ * a chain of turns that each schedule the next one, and thousands of paced games can share the few
+ * threads of a ScheduledExecutorService. Code that has to wait in place, such as a game with a human
+ * at the keyboard, uses pause(), which by default blocks until a scheduled task releases it.
+ */
+public interface TurnPacer {
+
+    /**
+     * Runs a task once the given delay has passed.
+     *
+     * @param delayMillis The delay in milliseconds
+     * @param task The task to be run
+     */
+    void schedule(long delayMillis, Runnable task);
+
+    /**
+     * Waits for the given delay. The default blocks the calling thread until the scheduled task
+     * releases it, which frees a virtual thread's carrier but holds a platform thread for the delay.
+     *
+     * @param delayMillis The delay in milliseconds
+     * @throws InterruptedException If the waiting thread is interrupted
+     */
+    default void pause(long delayMillis) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        schedule(delayMillis, latch::countDown);
+        latch.await();
+    }
+}
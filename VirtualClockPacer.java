@@ -0,0 +1,94 @@
+import java.util.PriorityQueue;
+
+/**
+ * Paces games on a clock that only moves when it is told to, so that a paced game can be checked
+ * without waiting for it. Tasks run on the thread that advances the clock, in the order they are due,
+ * and a pause moves the clock forward by the length of the pause.
+ *
+ * The clock is meant to be driven by a single thread.
+ */
+public class VirtualClockPacer implements TurnPacer {
+
+    /**
+     * A task waiting for the clock to reach its time. Tasks due at the same time run in the order
+     * they were scheduled.
+     */
+    private static class ScheduledTask implements Comparable<ScheduledTask> {
+        private final long dueMillis;
+        private final long sequence;
+        private final Runnable task;
+
+        ScheduledTask(long dueMillis, long sequence, Runnable task) {
+            this.dueMillis = dueMillis;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            int byTime = Long.compare(dueMillis, other.dueMillis);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Class variables.
+     */
+    private final PriorityQueue<ScheduledTask> tasks = new PriorityQueue<>();
+    private long nowMillis;
+    private long nextSequence;
+
+    /**
+     * Gets the time on the clock.
+     *
+     * @return The number of milliseconds the clock has moved since it was created
+     */
+    public long getNowMillis() {
+        return nowMillis;
+    }
+
+    public int getPendingTasks() {
+        return tasks.size();
+    }
+
+    @Override
+    public void schedule(long delayMillis, Runnable task) {
+        tasks.add(new ScheduledTask(nowMillis + delayMillis, nextSequence++, task));
+    }
+
+    /**
+     * Moves the clock forward by the length of the pause, running every task that falls due.
+     *
+     * @param delayMillis The delay in milliseconds
+     */
+    @Override
+    public void pause(long delayMillis) {
+        advance(delayMillis);
+    }
+
+    /**
+     * Moves the clock forward, running every task that falls due on the way at its own time.
+     *
+     * @param millis The number of milliseconds to move the clock by
+     */
+    public void advance(long millis) {
+        long target = nowMillis + millis;
+        while (!tasks.isEmpty() && tasks.peek().dueMillis <= target) {
+            ScheduledTask next = tasks.poll();
+            nowMillis = Math.max(nowMillis, next.dueMillis);
+            next.task.run();
+        }
+        nowMillis = Math.max(nowMillis, target);
+    }
+
+    /**
+     * Moves the clock forward until no tasks are left, including tasks scheduled by other tasks.
+     */
+    public void runUntilIdle() {
+        while (!tasks.isEmpty()) {
+            ScheduledTask next = tasks.poll();
+            nowMillis = Math.max(nowMillis, next.dueMillis);
+            next.task.run();
+        }
+    }
+}
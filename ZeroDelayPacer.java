@@ -0,0 +1,47 @@
+import java.util.ArrayDeque;
+
+/**
+ * Paces nothing: every task runs straight away and pauses return at once, for simulations.
+ *
+ * A task that schedules another task, as each turn of a paced game does, does not run it inside its
+ * own call; the new task is queued and run once the current one returns, so a long game does not
+ * grow the stack.
+ */
+public class ZeroDelayPacer implements TurnPacer {
+
+    /**
+     * The pacer is stateless apart from the per thread queue, so one instance serves everyone.
+     */
+    public static final ZeroDelayPacer INSTANCE = new ZeroDelayPacer();
+
+    /**
+     * Class variables. A thread's queue is only non-null while it is running tasks.
+     */
+    private final ThreadLocal<ArrayDeque<Runnable>> pendingTasks = new ThreadLocal<>();
+
+    private ZeroDelayPacer() {
+    }
+
+    @Override
+    public void schedule(long delayMillis, Runnable task) {
+        ArrayDeque<Runnable> queue = pendingTasks.get();
+        if (queue != null) {
+            queue.add(task);
+            return;
+        }
+
+        queue = new ArrayDeque<>();
+        pendingTasks.set(queue);
+        try {
+            for (Runnable next = task; next != null; next = queue.poll()) {
+                next.run();
+            }
+        } finally {
+            pendingTasks.remove();
+        }
+    }
+
+    @Override
+    public void pause(long delayMillis) {
+    }
+}